@@ -1,8 +1,11 @@
 package org.victorrobotics.devilscoutserver;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,6 +33,24 @@ public final class EncodingUtil {
     }
   }
 
+  public static byte[] jsonEncodeBytes(Object json) {
+    try {
+      return JSON.writeValueAsBytes(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  public static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream stream = new GZIPOutputStream(buffer)) {
+      stream.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.toByteArray();
+  }
+
   @SuppressWarnings("unchecked")
   public static <I, T> T jsonDecode(String json, Class<I> clazz) {
     try {
@@ -39,6 +60,15 @@ public final class EncodingUtil {
     }
   }
 
+  @SuppressWarnings("unchecked")
+  public static <I, T> T jsonDecode(byte[] json, Class<I> clazz) {
+    try {
+      return (T) JSON.readValue(json, clazz);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public static <I, T> T jsonDecode(InputStream stream, Class<I> clazz) {
     try {
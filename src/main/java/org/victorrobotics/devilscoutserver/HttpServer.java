@@ -11,6 +11,7 @@ import org.victorrobotics.devilscoutserver.controller.Controller;
 import org.victorrobotics.devilscoutserver.controller.EventController;
 import org.victorrobotics.devilscoutserver.controller.QuestionController;
 import org.victorrobotics.devilscoutserver.controller.SessionController;
+import org.victorrobotics.devilscoutserver.controller.StatusController;
 import org.victorrobotics.devilscoutserver.controller.SubmissionController;
 import org.victorrobotics.devilscoutserver.controller.TeamController;
 import org.victorrobotics.devilscoutserver.controller.UserController;
@@ -82,7 +83,20 @@ public class HttpServer {
           post("drive-team/{matchKey}", SubmissionController::submitDriveTeam);
         });
 
-        get("analysis/{eventKey}/teams", AnalysisController::teams);
+        path("analysis/{eventKey}", () -> {
+          get("teams", AnalysisController::teams);
+          get("teams/{teamNum}", AnalysisController::team);
+          get("teams/{teamNum}/season", AnalysisController::season);
+          get("predictions", AnalysisController::predictions);
+          get("rankings", AnalysisController::rankings);
+          post("picks", AnalysisController::picks);
+          get("scouts", AnalysisController::scouts);
+        });
+
+        path("status", () -> {
+          get("pipeline", StatusController::pipeline);
+          get("analysis", StatusController::analysis);
+        });
       });
     });
 
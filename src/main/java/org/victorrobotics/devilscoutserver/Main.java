@@ -1,13 +1,18 @@
 package org.victorrobotics.devilscoutserver;
 
 import org.victorrobotics.bluealliance.Endpoint;
+import org.victorrobotics.devilscoutserver.analysis.AlliancePicker;
 import org.victorrobotics.devilscoutserver.analysis.AnalysisCache;
-import org.victorrobotics.devilscoutserver.analysis.Analyzer;
+import org.victorrobotics.devilscoutserver.analysis.MatchPredictions;
+import org.victorrobotics.devilscoutserver.analysis.RankingProjections;
+import org.victorrobotics.devilscoutserver.analysis.RefreshPriorities;
 import org.victorrobotics.devilscoutserver.controller.Controller;
+import org.victorrobotics.devilscoutserver.database.AnalysisDatabase;
 import org.victorrobotics.devilscoutserver.database.Database;
 import org.victorrobotics.devilscoutserver.database.EntryDatabase;
 import org.victorrobotics.devilscoutserver.database.TeamDatabase;
 import org.victorrobotics.devilscoutserver.database.UserDatabase;
+import org.victorrobotics.devilscoutserver.pipeline.RefreshPipeline;
 import org.victorrobotics.devilscoutserver.questions.Questions;
 import org.victorrobotics.devilscoutserver.session.SessionManager;
 import org.victorrobotics.devilscoutserver.tba.EventCache;
@@ -26,6 +31,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,33 +51,69 @@ public class Main {
     Controller.setDriveTeamEntryDB(new EntryDatabase("drive_team_entries", true));
     LOGGER.info("Database connected");
 
+    LOGGER.info("Loading questions...");
+    CrescendoQuestions crescendoQuestions = new CrescendoQuestions();
+    Map<Integer, Questions> questions = new HashMap<>();
+    questions.put(2024, crescendoQuestions);
+    Controller.setQuestions(questions);
+    LOGGER.info("Questions loaded");
+
     LOGGER.info("Initializing caches...");
     Controller.setSessions(new SessionManager());
     Controller.setEventCache(new EventCache());
 
-    // Hack to pass circular references on final members
-    Map<Integer, Analyzer<?, ?>> analyzers = new HashMap<>();
-    AnalysisCache analysisCache = new AnalysisCache(analyzers);
+    // Leave most connections for request handlers
+    AnalysisCache analysisCache =
+        new AnalysisCache(Database.maxPoolSize() / 4, new AnalysisDatabase());
     Controller.setAnalysisCache(analysisCache);
 
     OprsCache oprsCache = new OprsCache(analysisCache);
     RankingsCache rankingsCache = new RankingsCache(analysisCache);
-    Controller.setMatchScheduleCache(new MatchScheduleCache(oprsCache, rankingsCache,
-                                                            analysisCache));
-    Controller.setTeamListCache(new TeamListCache(oprsCache, rankingsCache, analysisCache));
-    analyzers.put(2024,
-                  new CrescendoAnalyzer(Controller.matchEntryDB(), Controller.pitEntryDB(),
-                                        Controller.driveTeamEntryDB(),
-                                        Controller.matchScheduleCache(), oprsCache, rankingsCache));
-
+    Controller.setMatchScheduleCache(new MatchScheduleCache(analysisCache));
+    Controller.setTeamListCache(new TeamListCache(analysisCache));
+    analysisCache.setPriorities(new RefreshPriorities(Controller.matchScheduleCache()));
+    CrescendoAnalyzer crescendoAnalyzer =
+        new CrescendoAnalyzer(Controller.matchEntryDB(), Controller.pitEntryDB(),
+                              Controller.driveTeamEntryDB(), crescendoQuestions,
+                              Controller.matchScheduleCache(), oprsCache, rankingsCache);
+    crescendoAnalyzer.setScoutWeighting(Boolean.parseBoolean(System.getenv("SCOUT_WEIGHTING")));
+    analysisCache.registerAnalyzer(2024, crescendoAnalyzer);
+
+    ThreadFactory pipelineThreads = Thread.ofVirtual()
+                                          .name("Pipeline-", 0)
+                                          .factory();
+    RefreshPipeline pipeline =
+        new RefreshPipeline(Executors.newThreadPerTaskExecutor(pipelineThreads));
+    RefreshPipeline.Stage teamListStage =
+        pipeline.addStage("Team Lists", Controller.teamListsCache());
+    RefreshPipeline.Stage scheduleStage =
+        pipeline.addStage("Match Schedules", Controller.matchScheduleCache());
+    RefreshPipeline.Stage oprsStage =
+        pipeline.addStage("OPRs", oprsCache, teamListStage, scheduleStage);
+    RefreshPipeline.Stage rankingsStage =
+        pipeline.addStage("Rankings", rankingsCache, teamListStage, scheduleStage);
+    pipeline.addStage("Analysis", analysisCache, teamListStage, scheduleStage, oprsStage,
+                      rankingsStage);
+    // Simulated from the settled models, so they run from the listener rather
+    // than as pipeline stages, which return before analysis settles
+    MatchPredictions predictions =
+        new MatchPredictions(analysisCache, Controller.matchScheduleCache());
+    RankingProjections projections =
+        new RankingProjections(analysisCache, predictions, Controller.matchScheduleCache(),
+                               rankingsCache);
+    Consumer<String> simulate = eventKey -> {
+      predictions.refresh(eventKey);
+      projections.refresh(eventKey);
+    };
+    Controller.setMatchPredictions(predictions);
+    Controller.setRankingProjections(projections);
+    Controller.setAlliancePicker(new AlliancePicker(analysisCache, Controller.teamListsCache()));
+    Controller.setRefreshPipeline(pipeline);
+
+    // Serve the last computed analysis until it has been recomputed
+    analysisCache.restore(getActiveEvents());
     LOGGER.info("Caches ready");
 
-    LOGGER.info("Loading questions...");
-    Map<Integer, Questions> questions = new HashMap<>();
-    questions.put(2024, new CrescendoQuestions());
-    Controller.setQuestions(questions);
-    LOGGER.info("Questions loaded");
-
     LOGGER.info("Starting refresh services...");
     ThreadFactory blueAllianceThreads = Thread.ofVirtual()
                                               .name("BlueAlliance-", 0)
@@ -86,18 +128,40 @@ public class Main {
     Thread.ofPlatform()
           .name("Analysis")
           .start(analysisCache::refreshLoop);
+    Thread.ofPlatform()
+          .name("Analysis-Payloads")
+          .start(analysisCache::payloadLoop);
+    Thread.ofPlatform()
+          .name("Match-Entry-Writer")
+          .start(Controller.matchEntryDB()::writeLoop);
+    Thread.ofPlatform()
+          .name("Pit-Entry-Writer")
+          .start(Controller.pitEntryDB()::writeLoop);
+    Thread.ofPlatform()
+          .name("Drive-Team-Entry-Writer")
+          .start(Controller.driveTeamEntryDB()::writeLoop);
     executor.scheduleAtFixedRate(() -> {
       Controller.eventsCache()
                 .refresh();
     }, 0, 60, TimeUnit.MINUTES);
+    executor.execute(() -> {
+      // Restored analysis settles before any schedule is loaded, so only
+      // simulate once the first pass has loaded them
+      Set<String> activeEvents = getActiveEvents();
+      pipeline.refreshAll(teamListStage, activeEvents);
+      analysisCache.setEncodedListener(simulate);
+      activeEvents.forEach(simulate);
+    });
     executor.scheduleAtFixedRate(() -> {
-      Controller.teamListsCache()
-                .refreshAll(getActiveEvents());
-    }, 0, 60, TimeUnit.MINUTES);
+      Set<String> activeEvents = getActiveEvents();
+      pipeline.refreshAll(teamListStage, activeEvents);
+      predictions.removeStale(activeEvents);
+      projections.removeStale(activeEvents);
+    }, 60, 60, TimeUnit.MINUTES);
     executor.scheduleAtFixedRate(() -> {
-      Controller.matchScheduleCache()
-                .refreshAll(getActiveEvents());
+      pipeline.refreshAll(scheduleStage, getActiveEvents());
     }, 0, 1, TimeUnit.MINUTES);
+    executor.scheduleAtFixedRate(analysisCache::reconcile, 30, 30, TimeUnit.MINUTES);
     executor.scheduleAtFixedRate(() -> {
       Controller.sessions()
                 .purgeExpired();
@@ -0,0 +1,303 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import org.victorrobotics.devilscoutserver.analysis.PickRecommendation.Candidate;
+import org.victorrobotics.devilscoutserver.cache.Cache;
+import org.victorrobotics.devilscoutserver.tba.TeamListCache;
+import org.victorrobotics.devilscoutserver.tba.TeamListCache.TeamInfo;
+import org.victorrobotics.devilscoutserver.tba.TeamListCache.TeamList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Recommends the next pick during alliance selection. Alliances are scored by
+ * their chance of outscoring a typical playoff alliance at the event, using
+ * each team's {@link ScoreModel}.
+ * <p>
+ * For every available team, the rest of the snake draft is played out with
+ * each alliance greedily taking the team that helps it most, which also gives
+ * the choosing alliance its best remaining partner. Candidates are evaluated
+ * in parallel on the common fork-join pool, best bound first, and any whose
+ * optimistic bound can't reach the current shortlist are never simulated.
+ */
+public class AlliancePicker {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AlliancePicker.class);
+
+  public static final int ALLIANCE_SIZE = 3;
+  public static final int MAX_ALLIANCES = 8;
+
+  private static final int CANDIDATES = 10;
+
+  private final AnalysisCache analysisCache;
+  private final TeamListCache teamListCache;
+
+  public AlliancePicker(AnalysisCache analysisCache, TeamListCache teamListCache) {
+    this.analysisCache = analysisCache;
+    this.teamListCache = teamListCache;
+  }
+
+  /**
+   * @param alliances teams on each alliance in seed order, captain first
+   * @return recommendation for the alliance on the clock, or null if there is
+   *         no analysis for the event yet
+   */
+  public PickRecommendation recommend(String eventKey, int[][] alliances) {
+    long start = System.currentTimeMillis();
+    Cache.Value<?, TeamList> teamList = teamListCache.get(eventKey);
+    Map<Integer, ScoreModel> models = analysisCache.getScoreModels(eventKey);
+    if (teamList == null || models.isEmpty()) return null;
+
+    int[] turns = remainingTurns(alliances);
+    if (turns.length == 0) {
+      return new PickRecommendation(0, List.of());
+    }
+
+    Board board = new Board(alliances, turns, teamList.value(), models);
+    List<Candidate> candidates = board.search();
+    LOGGER.info("Ranked {} picks for alliance {} at event {} in {}ms", board.poolSize,
+                turns[0] + 1, eventKey, System.currentTimeMillis() - start);
+    return new PickRecommendation(turns[0] + 1, candidates);
+  }
+
+  /**
+   * @return alliance indices in the order they will pick, starting with the
+   *         alliance on the clock
+   */
+  static int[] remainingTurns(int[][] alliances) {
+    int[] sizes = new int[alliances.length];
+    for (int i = 0; i < alliances.length; i++) {
+      sizes[i] = alliances[i].length;
+    }
+
+    int[] turns = new int[alliances.length * (ALLIANCE_SIZE - 1)];
+    int count = 0;
+    for (int round = 1; round < ALLIANCE_SIZE; round++) {
+      for (int i = 0; i < alliances.length; i++) {
+        // Snake draft: even rounds pick in reverse seed order
+        int alliance = round % 2 == 1 ? i : alliances.length - 1 - i;
+        if (sizes[alliance] == round) {
+          turns[count++] = alliance;
+          sizes[alliance]++;
+        }
+      }
+    }
+    return Arrays.copyOf(turns, count);
+  }
+
+  // Abramowitz and Stegun 7.1.26, accurate to 1.5e-7
+  private static double normalCdf(double z) {
+    double x = Math.abs(z) / Math.sqrt(2);
+    double t = 1 / (1 + 0.3275911 * x);
+    double poly = t * (0.254829592
+        + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))));
+    double erf = 1 - poly * Math.exp(-x * x);
+    return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+  }
+
+  private static final class Board {
+    private final int[]    turns;
+    private final double[] allianceMeans;
+    private final double[] allianceVariances;
+
+    private final int      poolSize;
+    private final int[]    poolTeams;
+    private final double[] poolMeans;
+    private final double[] poolVariances;
+
+    private final double referenceMean;
+    private final double referenceVariance;
+
+    Board(int[][] alliances, int[] turns, TeamList teamList, Map<Integer, ScoreModel> models) {
+      this.turns = turns;
+      ScoreModel fallback = average(models);
+
+      Set<Integer> picked = new HashSet<>();
+      allianceMeans = new double[alliances.length];
+      allianceVariances = new double[alliances.length];
+      for (int i = 0; i < alliances.length; i++) {
+        for (int team : alliances[i]) {
+          ScoreModel model = models.getOrDefault(team, fallback);
+          allianceMeans[i] += model.mean();
+          allianceVariances[i] += model.stddev() * model.stddev();
+          picked.add(team);
+        }
+      }
+
+      List<ScoreModel> field = new ArrayList<>();
+      List<Integer> available = new ArrayList<>();
+      for (TeamInfo team : teamList.teams()) {
+        field.add(models.getOrDefault(team.getNumber(), fallback));
+        if (!picked.contains(team.getNumber())) {
+          available.add(team.getNumber());
+        }
+      }
+
+      poolSize = available.size();
+      poolTeams = new int[poolSize];
+      poolMeans = new double[poolSize];
+      poolVariances = new double[poolSize];
+      for (int i = 0; i < poolSize; i++) {
+        ScoreModel model = models.getOrDefault(available.get(i), fallback);
+        poolTeams[i] = available.get(i);
+        poolMeans[i] = model.mean();
+        poolVariances[i] = model.stddev() * model.stddev();
+      }
+
+      // A typical playoff alliance is three of the teams good enough to be picked
+      field.sort(Comparator.comparingDouble(ScoreModel::mean)
+                           .reversed());
+      int playoffTeams = Math.min(field.size(), alliances.length * ALLIANCE_SIZE);
+      double mean = 0;
+      double variance = 0;
+      for (ScoreModel model : field.subList(0, playoffTeams)) {
+        mean += model.mean();
+        variance += model.stddev() * model.stddev();
+      }
+      referenceMean = playoffTeams == 0 ? 0 : ALLIANCE_SIZE * mean / playoffTeams;
+      referenceVariance = playoffTeams == 0 ? 0 : ALLIANCE_SIZE * variance / playoffTeams;
+    }
+
+    List<Candidate> search() {
+      if (poolSize == 0) return List.of();
+
+      double[] bounds = bounds();
+      Integer[] order = new Integer[poolSize];
+      for (int i = 0; i < poolSize; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> Double.compare(bounds[b], bounds[a]));
+
+      double[] values = new double[poolSize];
+      int[] partners = new int[poolSize];
+      int shortlist = Math.min(CANDIDATES, poolSize);
+      IntStream.range(0, shortlist)
+               .parallel()
+               .forEach(i -> values[order[i]] = simulate(order[i], partners));
+
+      // Anything bounded below the shortlist's worst can't displace it
+      double threshold = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < shortlist; i++) {
+        threshold = Math.min(threshold, values[order[i]]);
+      }
+      int evaluated = shortlist;
+      while (evaluated < poolSize && bounds[order[evaluated]] >= threshold) {
+        evaluated++;
+      }
+      IntStream.range(shortlist, evaluated)
+               .parallel()
+               .forEach(i -> values[order[i]] = simulate(order[i], partners));
+
+      Integer[] best = Arrays.copyOf(order, evaluated);
+      Arrays.sort(best, (a, b) -> Double.compare(values[b], values[a]));
+
+      List<Candidate> candidates = new ArrayList<>(shortlist);
+      for (int i = 0; i < shortlist; i++) {
+        int index = best[i];
+        candidates.add(new Candidate(poolTeams[index], partners[index],
+                                     (double) Math.round(values[index] * 1000) / 1000));
+      }
+      return candidates;
+    }
+
+    /**
+     * Optimistic value of taking each team: the alliance also gets the best
+     * mean in the pool for any later pick, with whichever extreme of variance
+     * suits it.
+     */
+    private double[] bounds() {
+      int alliance = turns[0];
+      int laterPicks = 0;
+      for (int i = 1; i < turns.length; i++) {
+        if (turns[i] == alliance) {
+          laterPicks++;
+        }
+      }
+
+      double maxMean = 0;
+      double minVariance = Double.POSITIVE_INFINITY;
+      double maxVariance = 0;
+      for (int i = 0; i < poolSize; i++) {
+        maxMean = Math.max(maxMean, poolMeans[i]);
+        minVariance = Math.min(minVariance, poolVariances[i]);
+        maxVariance = Math.max(maxVariance, poolVariances[i]);
+      }
+
+      double[] bounds = new double[poolSize];
+      for (int i = 0; i < poolSize; i++) {
+        double mean = allianceMeans[alliance] + poolMeans[i] + laterPicks * maxMean;
+        double variance = allianceVariances[alliance] + poolVariances[i];
+        bounds[i] = Math.max(value(mean, variance + laterPicks * minVariance),
+                             value(mean, variance + laterPicks * maxVariance));
+      }
+      return bounds;
+    }
+
+    /**
+     * Plays out the rest of the draft after the alliance on the clock takes
+     * {@code candidate}, storing its next partner in {@code partners}.
+     */
+    private double simulate(int candidate, int[] partners) {
+      int alliance = turns[0];
+      double[] means = allianceMeans.clone();
+      double[] variances = allianceVariances.clone();
+      boolean[] taken = new boolean[poolSize];
+
+      means[alliance] += poolMeans[candidate];
+      variances[alliance] += poolVariances[candidate];
+      taken[candidate] = true;
+
+      int partner = 0;
+      for (int turn = 1; turn < turns.length; turn++) {
+        int picker = turns[turn];
+        int pick = -1;
+        double pickValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < poolSize; i++) {
+          if (taken[i]) continue;
+
+          double value = value(means[picker] + poolMeans[i], variances[picker] + poolVariances[i]);
+          if (value > pickValue) {
+            pick = i;
+            pickValue = value;
+          }
+        }
+        if (pick < 0) break;
+
+        taken[pick] = true;
+        means[picker] += poolMeans[pick];
+        variances[picker] += poolVariances[pick];
+        if (picker == alliance && partner == 0) {
+          partner = poolTeams[pick];
+        }
+      }
+
+      partners[candidate] = partner;
+      return value(means[alliance], variances[alliance]);
+    }
+
+    private double value(double mean, double variance) {
+      double spread = Math.sqrt(variance + referenceVariance);
+      if (spread == 0) return mean > referenceMean ? 1 : 0;
+      return normalCdf((mean - referenceMean) / spread);
+    }
+
+    // Unknown teams are treated as an average team at the event
+    private static ScoreModel average(Map<Integer, ScoreModel> models) {
+      double mean = 0;
+      double stddev = 0;
+      for (ScoreModel model : models.values()) {
+        mean += model.mean();
+        stddev += model.stddev();
+      }
+      return new ScoreModel(mean / models.size(), stddev / models.size());
+    }
+  }
+}
@@ -1,120 +1,1088 @@
 package org.victorrobotics.devilscoutserver.analysis;
 
+import static org.victorrobotics.devilscoutserver.EncodingUtil.jsonDecode;
+import static org.victorrobotics.devilscoutserver.EncodingUtil.jsonEncodeBytes;
+
+import org.victorrobotics.devilscoutserver.analysis.statistics.Statistic;
 import org.victorrobotics.devilscoutserver.analysis.statistics.StatisticsPage;
+import org.victorrobotics.devilscoutserver.database.AnalysisDatabase;
+import org.victorrobotics.devilscoutserver.database.AnalysisResult;
+import org.victorrobotics.devilscoutserver.database.DataEntry;
+import org.victorrobotics.devilscoutserver.store.EntryRow;
+import org.victorrobotics.devilscoutserver.metrics.DurationStats;
+import org.victorrobotics.devilscoutserver.pipeline.Refreshable;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class AnalysisCache {
-  private record DelayedRefresh(String eventKey,
-                                Integer team,
-                                long delayEnd)
-      implements Delayed {
+public class AnalysisCache implements Refreshable<String> {
+  private sealed interface RefreshKey permits TeamKey, EventKey {
+    String eventKey();
+  }
 
-    private static final long DELAY = TimeUnit.SECONDS.toMillis(5);
+  private record TeamKey(String eventKey,
+                         int team)
+      implements RefreshKey {}
 
-    DelayedRefresh(String eventKey, int team) {
-      this(eventKey, team, System.currentTimeMillis() + DELAY);
-    }
+  // The event-scoped job, which refreshes the event's batched teams together
+  private record EventKey(String eventKey) implements RefreshKey {}
+
+  public record Status(int debouncing,
+                       int queued,
+                       int running,
+                       long followUps,
+                       long refreshes,
+                       long unchanged,
+                       int checkedEntries,
+                       int flaggedEntries,
+                       DurationStats.Summary queueLatency,
+                       DurationStats.Summary computeTime) {}
+
+  private record PendingEntry(AnalysisInput source,
+                              EntryRow entry) {}
 
+  // Lower priority first, then in the order they were released
+  private record QueuedRefresh(RefreshKey key,
+                               int priority,
+                               long sequence,
+                               long queueTime)
+      implements Comparable<QueuedRefresh> {
     @Override
-    public long getDelay(TimeUnit unit) {
-      return unit.convert(delayEnd - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    public int compareTo(QueuedRefresh other) {
+      int result = Integer.compare(priority, other.priority);
+      return result != 0 ? result : Long.compare(sequence, other.sequence);
     }
+  }
 
-    @Override
-    public int compareTo(Delayed o) {
-      return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+  // Guarded by its own monitor. At most one refresh runs per key at a time,
+  // but a team's own job and its event's job can compute it concurrently.
+  private static final class TeamState {
+    private TeamAggregates     aggregates;
+    private boolean            stale;
+    private List<PendingEntry> pending; // non-null while a rebuild reads the database
+    private long               stored;  // sequence of the job that stored the result
+  }
+
+  // What other stages read from a team's data, checkpointed with its payload
+  private record TeamModels(ScoreModel score,
+                            RankingModel ranking) {}
+
+  /**
+   * A team's computed data. Statistics pages and their encoding are built on
+   * first read and memoized, so refreshes that are superseded before anyone
+   * reads them never build pages at all.
+   * <p>
+   * The fingerprint is the encoded data. Data can share mutable inputs such as
+   * OPRs with the previous result, so equality isn't enough to detect change.
+   */
+  private static final class TeamResult {
+    private final Object                         data;
+    private final byte[]                         fingerprint;
+    private final Supplier<List<StatisticsPage>> generator;
+    private final TeamModels                     models;
+    private final byte[]                         encodedModels;
+
+    private EncodedPayload       previous; // kept until encoded, to reuse its version
+    private List<StatisticsPage> pages;
+    private EncodedPayload       payload;
+    private boolean              checkpointed;
+    private EncodedPayload       savedPayload; // as last written to the database
+    private byte[]               savedModels;
+
+    private TeamResult(Object data, byte[] fingerprint, Supplier<List<StatisticsPage>> generator,
+                       TeamModels models, TeamResult replaced) {
+      this.data = data;
+      this.fingerprint = fingerprint;
+      this.generator = generator;
+      this.models = models;
+      this.encodedModels = jsonEncodeBytes(models);
+      if (replaced != null) {
+        synchronized (replaced) {
+          this.previous = replaced.payload != null ? replaced.payload : replaced.previous;
+          this.savedPayload = replaced.savedPayload;
+          this.savedModels = replaced.savedModels;
+        }
+      }
+    }
+
+    // Restored from a checkpoint, only the encoding and models are known
+    // until recomputed
+    private TeamResult(EncodedPayload payload, TeamModels models, byte[] encodedModels) {
+      this.data = null;
+      this.fingerprint = null;
+      this.generator = null;
+      this.models = models;
+      this.encodedModels = encodedModels;
+      this.payload = payload;
+      this.checkpointed = true;
+      this.savedPayload = payload;
+      this.savedModels = encodedModels;
+    }
+
+    synchronized List<StatisticsPage> pages() {
+      if (pages == null && generator != null) {
+        pages = generator.get();
+      }
+      return pages;
+    }
+
+    synchronized EncodedPayload payload() {
+      if (payload == null) {
+        byte[] json = jsonEncodeBytes(pages());
+        payload = previous != null && Arrays.equals(previous.json(), json) ? previous
+            : EncodedPayload.of(EncodedPayload.nextVersion(previous), json);
+        previous = null;
+      }
+      return payload;
+    }
+
+    /**
+     * A recomputed result that encodes the same as the saved one, such as
+     * the first after a restart, keeps the saved version and isn't rewritten.
+     *
+     * @return the encoding to write to the database, or null if it already is
+     */
+    synchronized AnalysisResult checkpoint(String eventKey, int team) {
+      if (checkpointed) return null;
+
+      checkpointed = true;
+      EncodedPayload encoded = payload();
+      if (encoded == savedPayload && Arrays.equals(encodedModels, savedModels)) return null;
+
+      savedPayload = encoded;
+      savedModels = encodedModels;
+      return new AnalysisResult(eventKey, team, encoded.version(), encoded.json(),
+                                encodedModels);
     }
   }
 
+  // Concatenates every team's payload, on the first read after a change
+  private static final class EventPayload {
+    private EncodedPayload encoded;
+    private boolean        stale = true;
+  }
+
   private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisCache.class);
 
-  private final Map<Integer, Analyzer<?, ?>>  analyzers;
-  private final BlockingQueue<DelayedRefresh> refreshQueue;
+  // Changes that can't be folded into existing aggregates
+  private static final Set<AnalysisInput> REBUILD_INPUTS =
+      EnumSet.of(AnalysisInput.MATCH_ENTRIES, AnalysisInput.PIT_ENTRIES,
+                 AnalysisInput.DRIVE_TEAM_ENTRIES, AnalysisInput.SCORE_BREAKDOWN);
+
+  private final AnalysisDatabase database;
+
+  private final Map<Integer, Analyzer<?, ?, ?>> analyzers;
+  private final Debouncer<RefreshKey>        refreshQueue;
+  private final ExecutorService              workers;
+
+  // Refreshes released by the debouncer, waiting for a worker
+  private final PriorityBlockingQueue<QueuedRefresh> ready;
+  private final AtomicLong                           readySequence;
+
+  private volatile RefreshPriorities priorities;
+  private volatile Consumer<String>  encodedListener;
+
+  // Value is whether another run was requested while the current one executes
+  private final ConcurrentMap<RefreshKey, Boolean> inFlight;
+
+  private final ConcurrentMap<TeamKey, TeamState> teamStates;
 
-  private final ConcurrentMap<String, Object> individualData;
+  // Teams waiting for their event's next event-scoped refresh. Sets are only
+  // modified inside compute, so a batch taken with remove is complete.
+  private final ConcurrentMap<String, Set<Integer>> eventBatches;
 
-  private final ConcurrentMap<String, Map<Integer, List<StatisticsPage>>> eventTeamStatistics;
+  // Events whose entries the next event job rereads before refreshing
+  private final Set<String> pendingReloads;
 
-  public AnalysisCache(Map<Integer, Analyzer<?, ?>> analyzers) {
-    this.analyzers = analyzers;
-    this.refreshQueue = new DelayQueue<>();
+  // Taken when a job starts, before it reads anything. A change made after a
+  // job reads its inputs schedules a job with a later sequence, so only the
+  // result of the latest job to compute a team is kept.
+  private final AtomicLong computeSequence;
 
-    individualData = new ConcurrentHashMap<>();
-    eventTeamStatistics = new ConcurrentHashMap<>();
+  private final AtomicInteger queued;
+  private final AtomicInteger running;
+  private final AtomicLong    followUps;
+  private final AtomicLong    refreshes;
+  private final AtomicLong    unchanged;
+  private final DurationStats queueLatency;
+  private final DurationStats computeTime;
+
+  // Per-team results are encoded when first read. Once refreshes for the
+  // event have been quiet for a moment, the event payload is marked stale and
+  // rebuilt from them on its next read.
+  private final ConcurrentMap<String, Map<Integer, TeamResult>> teamResults;
+  private final Debouncer<String>                               payloadQueue;
+  private final ConcurrentMap<String, EventPayload>             eventPayloads;
+
+  // Re-sorted once refreshes for the event have settled
+  private final ConcurrentMap<String, EventRanks> eventRanks;
+
+  private final SeasonProfiles seasonProfiles;
+
+  public AnalysisCache(int workerCount, AnalysisDatabase database) {
+    this.database = database;
+    this.analyzers = new ConcurrentHashMap<>();
+    this.refreshQueue = new Debouncer<>(5, TimeUnit.SECONDS);
+    this.workers = Executors.newFixedThreadPool(workerCount, Thread.ofVirtual()
+                                                                  .name("Analysis-", 0)
+                                                                  .factory());
+    this.ready = new PriorityBlockingQueue<>();
+    this.readySequence = new AtomicLong();
+    this.inFlight = new ConcurrentHashMap<>();
+    this.teamStates = new ConcurrentHashMap<>();
+    this.eventBatches = new ConcurrentHashMap<>();
+    this.pendingReloads = ConcurrentHashMap.newKeySet();
+    this.computeSequence = new AtomicLong();
+
+    queued = new AtomicInteger();
+    running = new AtomicInteger();
+    followUps = new AtomicLong();
+    refreshes = new AtomicLong();
+    unchanged = new AtomicLong();
+    queueLatency = new DurationStats();
+    computeTime = new DurationStats();
+
+    teamResults = new ConcurrentHashMap<>();
+    payloadQueue = new Debouncer<>(1, TimeUnit.SECONDS);
+    eventPayloads = new ConcurrentHashMap<>();
+    eventRanks = new ConcurrentHashMap<>();
+    seasonProfiles = new SeasonProfiles();
+  }
+
+  public void registerAnalyzer(int year, Analyzer<?, ?, ?> analyzer) {
+    analyzers.put(year, analyzer);
+  }
+
+  public void setPriorities(RefreshPriorities priorities) {
+    this.priorities = priorities;
+  }
+
+  /**
+   * Sets a callback for when an event's analysis has settled after changing,
+   * or after its upstream pipeline stages changed, run on the payload thread.
+   */
+  public void setEncodedListener(Consumer<String> listener) {
+    this.encodedListener = listener;
+  }
+
+  /**
+   * Records client demand for analysis, to refresh what is being looked at
+   * first when the queue backs up.
+   *
+   * @param team the team viewed, or 0 for the whole event
+   */
+  public void recordView(String eventKey, int viewerTeam, int team) {
+    RefreshPriorities current = priorities;
+    if (current != null) {
+      current.recordView(eventKey, viewerTeam, team);
+    }
+  }
+
+  public void scheduleRefresh(String eventKey, int team, AnalysisInput input) {
+    scheduleRefresh(eventKey, team, Set.of(input));
   }
 
-  public void scheduleRefresh(String eventKey, int team) {
-    boolean removal = refreshQueue.removeIf(q -> q.eventKey.equals(eventKey) && q.team == team);
-    refreshQueue.add(new DelayedRefresh(eventKey, team));
-    if (!removal) {
+  public void scheduleRefresh(String eventKey, int team, Collection<AnalysisInput> changes) {
+    if (!isAffected(eventKey, changes)) return;
+
+    TeamKey key = new TeamKey(eventKey, team);
+    needsRebuild(key, changes);
+    if (refreshQueue.schedule(key)) {
+      LOGGER.info("Scheduled refresh for team {} at event {}", team, eventKey);
+    }
+  }
+
+  /**
+   * Schedules one event-scoped refresh for changes that touch many teams at
+   * once, such as new OPRs or rankings after a match.
+   */
+  public void scheduleEventRefresh(String eventKey,
+                                   Map<Integer, ? extends Collection<AnalysisInput>> teamChanges) {
+    Set<Integer> teams = new HashSet<>();
+    for (Map.Entry<Integer, ? extends Collection<AnalysisInput>> entry : teamChanges.entrySet()) {
+      if (isAffected(eventKey, entry.getValue())) {
+        TeamKey key = new TeamKey(eventKey, entry.getKey());
+        needsRebuild(key, entry.getValue());
+        teamStates.computeIfAbsent(key, k -> new TeamState());
+        teams.add(entry.getKey());
+      }
+    }
+    if (teams.isEmpty()) return;
+
+    addToBatch(eventKey, teams);
+    if (refreshQueue.schedule(new EventKey(eventKey))) {
+      LOGGER.info("Scheduled refresh for {} teams at event {}", teams.size(), eventKey);
+    }
+  }
+
+  /**
+   * Stores a newly submitted entry and folds it into the team's aggregates, so
+   * the following refresh doesn't need to rescan the team's entries.
+   */
+  public void addEntry(String eventKey, int team, AnalysisInput source, DataEntry submitted) {
+    if (!isAffected(eventKey, Set.of(source))) return;
+
+    Analyzer<?, ?, ?> analyzer = analyzer(eventKey);
+    EntryRow entry = analyzer.recordEntry(source, submitted);
+    // Other entries for the match may be judged differently with this one,
+    // which the event job checks off the request thread
+    if (source == AnalysisInput.MATCH_ENTRIES) {
+      refreshQueue.schedule(new EventKey(eventKey));
+    }
+
+    TeamKey key = new TeamKey(eventKey, team);
+    TeamState state = teamStates.computeIfAbsent(key, k -> new TeamState());
+    synchronized (state) {
+      if (state.pending != null) {
+        state.pending.add(new PendingEntry(source, entry));
+      } else if (state.aggregates != null && !state.stale) {
+        addEntry(analyzer, state.aggregates, source, entry);
+      }
+      // Otherwise the next refresh rebuilds from the database anyway
+    }
+
+    if (refreshQueue.schedule(key)) {
       LOGGER.info("Scheduled refresh for team {} at event {}", team, eventKey);
     }
   }
 
+  /**
+   * Has each event's job reread its entries from the database and rebuild
+   * all aggregates, correcting any drift from entries changed outside of
+   * submissions.
+   */
+  public void reconcile() {
+    Map<String, Set<Integer>> teams = new HashMap<>();
+    for (TeamKey key : teamStates.keySet()) {
+      teams.computeIfAbsent(key.eventKey(), k -> new HashSet<>())
+           .add(key.team());
+    }
+
+    Set<RefreshKey> keys = new LinkedHashSet<>();
+    for (Map.Entry<String, Set<Integer>> entry : teams.entrySet()) {
+      // The event job rereads the entries, off this thread
+      pendingReloads.add(entry.getKey());
+      addToBatch(entry.getKey(), entry.getValue());
+      keys.add(new EventKey(entry.getKey()));
+    }
+
+    refreshQueue.scheduleAll(keys);
+    LOGGER.info("Scheduled reconciliation of {} events", keys.size());
+  }
+
+  @Override
+  public void removeStale(Collection<? extends String> activeKeys) {
+    teamStates.keySet()
+              .removeIf(key -> !activeKeys.contains(key.eventKey()));
+    eventBatches.keySet()
+                .retainAll(activeKeys);
+    pendingReloads.retainAll(activeKeys);
+    teamResults.keySet()
+               .retainAll(activeKeys);
+    eventPayloads.keySet()
+                 .retainAll(activeKeys);
+    eventRanks.keySet()
+              .retainAll(activeKeys);
+    for (Analyzer<?, ?, ?> analyzer : analyzers.values()) {
+      analyzer.removeStale(activeKeys);
+    }
+
+    RefreshPriorities current = priorities;
+    if (current != null) {
+      current.removeStale(activeKeys);
+    }
+  }
+
+  /**
+   * Skips the debounce delay for any refreshes pending for the event. Upstream
+   * pipeline stages have already settled, so there is nothing left to batch.
+   * <p>
+   * The event is also settled afterwards even if no team's analysis changes,
+   * since the schedule or rankings the listener simulates from have.
+   */
+  @Override
+  public boolean refresh(String eventKey) {
+    boolean expedited = refreshQueue.expedite(key -> key.eventKey()
+                                                        .equals(eventKey))
+        != 0;
+    // Changed results reschedule this, so it runs after the last of them
+    payloadQueue.schedule(eventKey);
+    return expedited;
+  }
+
   @SuppressWarnings("java:S2189") // intentional infinite loop
   public void refreshLoop() {
     while (true) {
-      DelayedRefresh refresh;
+      RefreshKey key;
+      try {
+        key = refreshQueue.take();
+      } catch (InterruptedException e) {
+        continue;
+      }
+
+      dispatch(key);
+    }
+  }
+
+  @SuppressWarnings("java:S2189") // intentional infinite loop
+  public void payloadLoop() {
+    while (true) {
+      String eventKey;
       try {
-        refresh = refreshQueue.take();
+        eventKey = payloadQueue.take();
       } catch (InterruptedException e) {
         continue;
       }
 
-      refresh(refresh.eventKey(), refresh.team());
+      try {
+        settle(eventKey);
+      } catch (Exception e) {
+        LOGGER.warn("Error while settling analysis for event {}", eventKey, e);
+      }
+    }
+  }
+
+  /**
+   * Re-sorts the event's ranks and marks its payload stale, once refreshes
+   * for the event have been quiet for a moment.
+   */
+  private void settle(String eventKey) {
+    Map<Integer, TeamResult> results = teamResults.get(eventKey);
+    if (results == null || results.isEmpty()) {
+      eventPayloads.remove(eventKey);
+      return;
+    }
+
+    EventRanks ranks = eventRanks.get(eventKey);
+    if (ranks != null) {
+      for (Integer team : ranks.rerank()) {
+        // Pages are built with the ranks current at the time
+        results.computeIfPresent(team, (k, result) -> result.generator == null ? result
+            : new TeamResult(result.data, result.fingerprint, result.generator, result.models,
+                             result));
+      }
+    }
+
+    EventPayload payload = eventPayloads.computeIfAbsent(eventKey, k -> new EventPayload());
+    synchronized (payload) {
+      payload.stale = true;
+    }
+
+    checkpoint(eventKey, results);
+
+    Consumer<String> listener = encodedListener;
+    if (listener != null) {
+      listener.accept(eventKey);
+    }
+  }
+
+  private EncodedPayload encodePayload(String eventKey, EncodedPayload previous) {
+    long start = System.currentTimeMillis();
+    Map<Integer, TeamResult> results = teamResults.get(eventKey);
+    if (results == null || results.isEmpty()) return null;
+
+    // Same shape as serializing the map, without re-serializing any team
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    json.write('{');
+    boolean first = true;
+    for (Map.Entry<Integer, TeamResult> entry : results.entrySet()) {
+      if (!first) {
+        json.write(',');
+      }
+      first = false;
+
+      json.writeBytes(("\"" + entry.getKey() + "\":").getBytes(StandardCharsets.UTF_8));
+      json.writeBytes(entry.getValue()
+                           .payload()
+                           .json());
+    }
+    json.write('}');
+
+    byte[] bytes = json.toByteArray();
+    LOGGER.info("Encoded analysis for event {} in {}ms", eventKey,
+                System.currentTimeMillis() - start);
+    if (previous != null && Arrays.equals(previous.json(), bytes)) return previous;
+
+    return EncodedPayload.of(EncodedPayload.nextVersion(previous), bytes);
+  }
+
+  // Only results that changed since they were last saved are encoded here
+  private void checkpoint(String eventKey, Map<Integer, TeamResult> results) {
+    List<AnalysisResult> changed = new ArrayList<>();
+    for (Map.Entry<Integer, TeamResult> entry : results.entrySet()) {
+      AnalysisResult result = entry.getValue()
+                                   .checkpoint(eventKey, entry.getKey());
+      if (result != null) {
+        changed.add(result);
+      }
+    }
+
+    try {
+      database.saveResults(changed);
+    } catch (SQLException e) {
+      LOGGER.warn("Error while saving analysis for event {}", eventKey, e);
+    }
+  }
+
+  private void deleteCheckpoint(String eventKey, int team) {
+    try {
+      database.deleteResult(eventKey, team);
+    } catch (SQLException e) {
+      LOGGER.warn("Error while deleting saved analysis for team {} at event {}", team, eventKey,
+                  e);
+    }
+  }
+
+  /**
+   * Serves checkpointed analysis for the active events until it is recomputed.
+   * Events are rebuilt most recently computed first, since those are the
+   * ones being scouted right now.
+   */
+  public void restore(Collection<String> activeEvents) {
+    List<AnalysisResult> checkpoints;
+    try {
+      database.createTable();
+      checkpoints = database.getResults();
+    } catch (SQLException e) {
+      LOGGER.warn("Error while loading saved analysis", e);
+      return;
+    }
+
+    Map<String, Set<Integer>> restored = new LinkedHashMap<>();
+    int teams = 0;
+    for (AnalysisResult checkpoint : checkpoints) {
+      String eventKey = checkpoint.eventKey();
+      if (!activeEvents.contains(eventKey) || !analyzers.containsKey(extractYear(eventKey))) {
+        continue;
+      }
+
+      EncodedPayload payload = EncodedPayload.of(checkpoint.version(), checkpoint.statistics());
+      // Checkpoints from before models were saved have none
+      TeamModels models = checkpoint.models() == null ? new TeamModels(null, null)
+          : jsonDecode(checkpoint.models(), TeamModels.class);
+      teamResults.computeIfAbsent(eventKey, x -> new ConcurrentSkipListMap<>())
+                 .putIfAbsent(checkpoint.team(),
+                              new TeamResult(payload, models, checkpoint.models()));
+
+      // Rebuilt by the event load below
+      TeamState state = new TeamState();
+      state.stale = true;
+      teamStates.putIfAbsent(new TeamKey(eventKey, checkpoint.team()), state);
+      restored.computeIfAbsent(eventKey, k -> new HashSet<>())
+              .add(checkpoint.team());
+      teams++;
+    }
+
+    List<RefreshKey> keys = new ArrayList<>(restored.size());
+    for (Map.Entry<String, Set<Integer>> entry : restored.entrySet()) {
+      settle(entry.getKey());
+      addToBatch(entry.getKey(), entry.getValue());
+      keys.add(new EventKey(entry.getKey()));
+    }
+    refreshQueue.scheduleAll(keys);
+    LOGGER.info("Restored analysis for {} teams at {} events", teams, restored.size());
+  }
+
+  private static List<StatisticsPage> withRanks(List<StatisticsPage> pages,
+                                                Map<String, EventRanks.Rank> ranks) {
+    if (ranks.isEmpty()) return pages;
+
+    for (StatisticsPage page : pages) {
+      for (Statistic statistic : page.statistics()) {
+        EventRanks.Rank rank = ranks.get(statistic.name);
+        if (rank != null) {
+          statistic.setRank(rank.rank(), rank.percentile());
+        }
+      }
+    }
+    return pages;
+  }
+
+  public Status getStatus() {
+    int checkedEntries = 0;
+    int flaggedEntries = 0;
+    for (Analyzer<?, ?, ?> analyzer : analyzers.values()) {
+      checkedEntries += analyzer.checkedEntryCount();
+      flaggedEntries += analyzer.flaggedEntryCount();
+    }
+    return new Status(refreshQueue.size(), queued.get(), running.get(), followUps.get(),
+                      refreshes.get(), unchanged.get(), checkedEntries, flaggedEntries,
+                      queueLatency.summary(), computeTime.summary());
+  }
+
+  private void dispatch(RefreshKey key) {
+    while (true) {
+      if (inFlight.putIfAbsent(key, Boolean.FALSE) == null) {
+        queued.incrementAndGet();
+        ready.add(new QueuedRefresh(key, priority(key), readySequence.getAndIncrement(),
+                                    System.nanoTime()));
+        // One task per queued refresh, each takes whichever is most urgent
+        workers.execute(this::runNext);
+        return;
+      }
+
+      // Already running, request a single follow-up run
+      if (inFlight.replace(key, Boolean.FALSE, Boolean.TRUE)
+          || Boolean.TRUE.equals(inFlight.get(key))) {
+        return;
+      }
+
+      // The running refresh finished in between, try again
+    }
+  }
+
+  private int priority(RefreshKey key) {
+    RefreshPriorities current = priorities;
+    // Event loads gate the refresh of every team they claim
+    if (current == null || !(key instanceof TeamKey teamKey)) return RefreshPriorities.UPCOMING;
+
+    return current.priority(teamKey.eventKey(), teamKey.team());
+  }
+
+  private void runNext() {
+    QueuedRefresh next = ready.poll();
+    if (next != null) {
+      runRefresh(next.key(), next.queueTime());
     }
   }
 
-  private <D> void refresh(String eventKey, int team) {
+  private void runRefresh(RefreshKey key, long queueTime) {
+    queued.decrementAndGet();
+    queueLatency.recordSince(queueTime);
+    running.incrementAndGet();
+    try {
+      do {
+        long start = System.nanoTime();
+        if (key instanceof TeamKey teamKey) {
+          refresh(teamKey.eventKey(), teamKey.team());
+        } else {
+          refreshEvent(key.eventKey());
+        }
+        computeTime.recordSince(start);
+      } while (!inFlight.remove(key, Boolean.FALSE) && startFollowUp(key));
+    } finally {
+      running.decrementAndGet();
+    }
+  }
+
+  private boolean startFollowUp(RefreshKey key) {
+    followUps.incrementAndGet();
+    return inFlight.replace(key, Boolean.TRUE, Boolean.FALSE);
+  }
+
+  private <A extends TeamAggregates, D> void refresh(String eventKey, int team) {
     try {
       long start = System.currentTimeMillis();
-      @SuppressWarnings("unchecked") // SHOULD be safe
-      Analyzer<?, D> analyzer = (Analyzer<?, D>) analyzers.get(extractYear(eventKey));
-      D data = analyzer.computeData(eventKey, team);
-
-      if (data == null) {
-        individualData.remove(team + "@" + eventKey);
-
-        Map<Integer, List<StatisticsPage>> teamStatistics = eventTeamStatistics.get(eventKey);
-        if (teamStatistics != null) {
-          teamStatistics.remove(team);
-          if (teamStatistics.isEmpty()) {
-            eventTeamStatistics.remove(eventKey);
-          }
+      long sequence = computeSequence.incrementAndGet();
+      Analyzer<?, A, D> analyzer = analyzer(eventKey);
+      TeamState state = teamStates.computeIfAbsent(new TeamKey(eventKey, team),
+                                                   k -> new TeamState());
+
+      boolean rebuild;
+      synchronized (state) {
+        // An event load is in progress and will refresh this team when done
+        if (state.pending != null) return;
+
+        rebuild = state.aggregates == null || state.stale;
+        if (rebuild) {
+          state.stale = false;
+          state.pending = new ArrayList<>();
         }
-      } else {
-        individualData.put(team + "@" + eventKey, data);
+      }
 
-        List<StatisticsPage> uiStats = analyzer.generateStatistics(data);
-        eventTeamStatistics.computeIfAbsent(eventKey, x -> new ConcurrentSkipListMap<>())
-                           .put(team, uiStats);
+      if (rebuild) {
+        rebuildAggregates(analyzer, state, eventKey, team);
       }
 
-      LOGGER.info("Refreshed team {} at event {} in {}ms", team, eventKey,
-                  System.currentTimeMillis() - start);
+      Analyzer.EventData<A, D> event = analyzer.prepareEvent(eventKey, Set.of(team));
+      if (computeTeam(analyzer, event, sequence, eventKey, team, state)) {
+        LOGGER.info("Refreshed team {} at event {} in {}ms{}", team, eventKey,
+                    System.currentTimeMillis() - start, rebuild ? " (rebuilt)" : "");
+      } else {
+        LOGGER.debug("Refreshed team {} at event {} in {}ms, unchanged", team, eventKey,
+                     System.currentTimeMillis() - start);
+      }
     } catch (Exception e) {
       LOGGER.warn("Error while refreshing team {} at event {}", team, eventKey, e);
     }
   }
 
+  /**
+   * Computes the team's data from its current aggregates and stores it,
+   * unless it is the same as before or a later job already stored its own.
+   *
+   * @return whether the team's result changed
+   */
+  private <A extends TeamAggregates, D> boolean computeTeam(Analyzer<?, A, D> analyzer,
+                                                            Analyzer.EventData<A, D> event,
+                                                            long sequence, String eventKey,
+                                                            int team, TeamState state) {
+    D data;
+    synchronized (state) {
+      @SuppressWarnings("unchecked") // created by this analyzer
+      A aggregates = (A) state.aggregates;
+      data = event.compute(team, aggregates);
+    }
+    byte[] fingerprint = data == null ? null : jsonEncodeBytes(data);
+
+    boolean changed;
+    synchronized (state) {
+      if (sequence < state.stored) {
+        // Computed from older inputs than the result already stored
+        refreshes.incrementAndGet();
+        unchanged.incrementAndGet();
+        return false;
+      }
+      state.stored = sequence;
+      changed = store(analyzer, eventKey, team, data, fingerprint);
+    }
+    if (changed && data == null) {
+      deleteCheckpoint(eventKey, team);
+    }
+
+    // Read under the team's lock when the season profile is next requested
+    @SuppressWarnings("unchecked") // created by this analyzer
+    Supplier<A> aggregates = () -> (A) state.aggregates;
+    seasonProfiles.update(analyzer, extractYear(eventKey), eventKey, team, state, aggregates);
+
+    refreshes.incrementAndGet();
+    if (changed) {
+      payloadQueue.schedule(eventKey);
+    } else {
+      unchanged.incrementAndGet();
+    }
+    return changed;
+  }
+
+  private <A extends TeamAggregates, D> boolean store(Analyzer<?, A, D> analyzer,
+                                                      String eventKey, int team, D data,
+                                                      byte[] fingerprint) {
+    if (data == null) {
+      EventRanks ranks = eventRanks.get(eventKey);
+      if (ranks != null) {
+        ranks.remove(team);
+      }
+
+      Map<Integer, TeamResult> results = teamResults.get(eventKey);
+      return results != null && results.remove(team) != null;
+    }
+
+    EventRanks ranks = eventRanks.computeIfAbsent(eventKey, k -> new EventRanks());
+    ranks.update(team, analyzer.rankedMetrics(data));
+
+    Supplier<List<StatisticsPage>> generator =
+        () -> withRanks(analyzer.generateStatistics(data), ranks.get(team));
+    TeamModels models = new TeamModels(analyzer.scoreModel(data), analyzer.rankingModel(data));
+    boolean[] replacedResult = new boolean[1];
+    teamResults.computeIfAbsent(eventKey, x -> new ConcurrentSkipListMap<>())
+               .compute(team, (k, replaced) -> {
+                 // Keep the memoized pages and payload if nothing changed
+                 if (replaced != null && Arrays.equals(replaced.fingerprint, fingerprint)) {
+                   return replaced;
+                 }
+                 replacedResult[0] = true;
+                 return new TeamResult(data, fingerprint, generator, models, replaced);
+               });
+    return replacedResult[0];
+  }
+
+  /**
+   * Refreshes the event's batched teams as one job. Those needing a rebuild
+   * are loaded together with one scan of each entry table, and all of them
+   * share one walk of the match schedule.
+   */
+  private <A extends TeamAggregates, D> void refreshEvent(String eventKey) {
+    long start = System.currentTimeMillis();
+    long sequence = computeSequence.incrementAndGet();
+    Analyzer<?, A, D> analyzer = analyzer(eventKey);
+    Set<Integer> batch = eventBatches.remove(eventKey);
+    if (batch == null) {
+      batch = new HashSet<>();
+    }
+
+    if (pendingReloads.remove(eventKey)) {
+      try {
+        analyzer.reload(eventKey);
+        // Rebuild even if a team's own job rebuilt it from the old entries
+        for (Integer team : batch) {
+          needsRebuild(new TeamKey(eventKey, team), Set.of(AnalysisInput.MATCH_ENTRIES));
+        }
+      } catch (RuntimeException e) {
+        LOGGER.warn("Error while reloading entries for event {}", eventKey, e);
+      }
+    }
+
+    // New score breakdowns settle which entries to leave out, before loading
+    try {
+      for (Integer team : analyzer.reconcile(eventKey)) {
+        TeamKey key = new TeamKey(eventKey, team);
+        teamStates.computeIfAbsent(key, k -> new TeamState());
+        needsRebuild(key, Set.of(AnalysisInput.MATCH_ENTRIES));
+        batch.add(team);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warn("Error while checking entries for event {}", eventKey, e);
+    }
+
+    // Teams already being rebuilt on their own are refreshed by that run
+    Map<Integer, TeamState> claimed = new HashMap<>();
+    Map<Integer, TeamState> loading = new HashMap<>();
+    for (Integer team : batch) {
+      TeamState state = teamStates.get(new TeamKey(eventKey, team));
+      if (state == null) continue; // removed as stale
+
+      synchronized (state) {
+        if (state.pending != null) continue;
+
+        boolean load = state.aggregates == null || state.stale;
+        if (load) {
+          state.stale = false;
+          state.pending = new ArrayList<>();
+          loading.put(team, state);
+        }
+        claimed.put(team, state);
+      }
+    }
+    if (claimed.isEmpty()) return;
+
+    if (!loading.isEmpty()) {
+      try {
+        Map<Integer, A> loaded = analyzer.loadEventAggregates(eventKey, loading.keySet());
+        for (Map.Entry<Integer, TeamState> entry : loading.entrySet()) {
+          install(analyzer, entry.getValue(), loaded.get(entry.getKey()));
+        }
+      } catch (RuntimeException e) {
+        for (TeamState state : loading.values()) {
+          synchronized (state) {
+            state.stale = true;
+            state.pending = null;
+          }
+        }
+        claimed.keySet()
+               .removeAll(loading.keySet());
+        // Retried with the event's next batch
+        addToBatch(eventKey, loading.keySet());
+        LOGGER.warn("Error while loading event {}", eventKey, e);
+      }
+    }
+
+    int changed = 0;
+    try {
+      Analyzer.EventData<A, D> event = analyzer.prepareEvent(eventKey, claimed.keySet());
+      for (Map.Entry<Integer, TeamState> entry : claimed.entrySet()) {
+        try {
+          if (computeTeam(analyzer, event, sequence, eventKey, entry.getKey(),
+                          entry.getValue())) {
+            changed++;
+          }
+        } catch (Exception e) {
+          LOGGER.warn("Error while refreshing team {} at event {}", entry.getKey(), eventKey, e);
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Error while refreshing event {}", eventKey, e);
+      return;
+    }
+    LOGGER.info("Refreshed {} teams at event {} in {}ms ({} rebuilt, {} changed)",
+                claimed.size(), eventKey, System.currentTimeMillis() - start, loading.size(),
+                changed);
+  }
+
+  private static <A extends TeamAggregates> void rebuildAggregates(Analyzer<?, A, ?> analyzer,
+                                                                  TeamState state,
+                                                                  String eventKey, int team) {
+    A aggregates;
+    try {
+      aggregates = analyzer.loadAggregates(eventKey, team);
+    } catch (RuntimeException e) {
+      synchronized (state) {
+        state.stale = true;
+        state.pending = null;
+      }
+      throw e;
+    }
+
+    install(analyzer, state, aggregates);
+  }
+
+  private static <A extends TeamAggregates> void install(Analyzer<?, A, ?> analyzer,
+                                                         TeamState state, A aggregates) {
+    synchronized (state) {
+      // Entries submitted during the load may or may not have been read
+      for (PendingEntry pending : state.pending) {
+        analyzer.addEntry(aggregates, pending.source(), pending.entry());
+      }
+      state.aggregates = aggregates;
+      state.pending = null;
+    }
+  }
+
+  // Sets are only modified inside compute, see eventBatches
+  private void addToBatch(String eventKey, Collection<Integer> teams) {
+    eventBatches.compute(eventKey, (k, batch) -> {
+      Set<Integer> merged = batch == null ? new HashSet<>() : batch;
+      merged.addAll(teams);
+      return merged;
+    });
+  }
+
+  /**
+   * Marks the team's aggregates stale if the changes can't be applied to them.
+   *
+   * @return whether the next refresh has to rebuild the team's aggregates
+   */
+  private boolean needsRebuild(TeamKey key, Collection<AnalysisInput> changes) {
+    boolean rebuild = false;
+    for (AnalysisInput input : changes) {
+      if (REBUILD_INPUTS.contains(input)) {
+        rebuild = true;
+        break;
+      }
+    }
+
+    TeamState state = teamStates.get(key);
+    if (state == null) return true;
+
+    synchronized (state) {
+      state.stale |= rebuild;
+      return state.aggregates == null || state.stale;
+    }
+  }
+
+  @SuppressWarnings("unchecked") // cast from the registered analyzer
+  private static <A extends TeamAggregates> void addEntry(Analyzer<?, A, ?> analyzer,
+                                                          TeamAggregates aggregates,
+                                                          AnalysisInput source, EntryRow entry) {
+    analyzer.addEntry((A) aggregates, source, entry);
+  }
+
+  @SuppressWarnings("unchecked") // SHOULD be safe
+  private <A extends TeamAggregates, D> Analyzer<?, A, D> analyzer(String eventKey) {
+    return (Analyzer<?, A, D>) analyzers.get(extractYear(eventKey));
+  }
+
   public Object get(String eventKey, int team) {
-    return individualData.get(team + "@" + eventKey);
+    TeamResult result = teamResult(eventKey, team);
+    return result == null ? null : result.data;
+  }
+
+  /**
+   * @return the scoring model of every team at the event with analysis,
+   *         including analysis restored from a checkpoint
+   */
+  public Map<Integer, ScoreModel> getScoreModels(String eventKey) {
+    return collectModels(eventKey, TeamModels::score);
+  }
+
+  /**
+   * @return the ranking model of every team at the event with analysis,
+   *         including analysis restored from a checkpoint
+   */
+  public Map<Integer, RankingModel> getRankingModels(String eventKey) {
+    return collectModels(eventKey, TeamModels::ranking);
+  }
+
+  public RankingRules getRankingRules(String eventKey) {
+    Analyzer<?, ?, ?> analyzer = analyzers.get(extractYear(eventKey));
+    return analyzer == null ? null : analyzer.rankingRules();
+  }
+
+  /**
+   * @return reliability of each of the users as a scout in the event's season
+   */
+  public List<ScoutReliability.Score> getScoutScores(String eventKey,
+                                                     Collection<String> userIds) {
+    Analyzer<?, ?, ?> analyzer = analyzers.get(extractYear(eventKey));
+    if (analyzer == null) return List.of();
+
+    List<ScoutReliability.Score> scores = new ArrayList<>(userIds.size());
+    for (String userId : userIds) {
+      scores.add(analyzer.getScoutReliability()
+                         .score(userId));
+    }
+    return scores;
+  }
+
+  private <T> Map<Integer, T> collectModels(String eventKey, Function<TeamModels, T> extractor) {
+    Map<Integer, TeamResult> results = teamResults.get(eventKey);
+    if (results == null) return Map.of();
+
+    Map<Integer, T> models = new HashMap<>();
+    for (Map.Entry<Integer, TeamResult> entry : results.entrySet()) {
+      T model = extractor.apply(entry.getValue().models);
+      if (model != null) {
+        models.put(entry.getKey(), model);
+      }
+    }
+    return models;
+  }
+
+  public EncodedPayload getEventPayload(String eventKey) {
+    EventPayload payload = eventPayloads.get(eventKey);
+    if (payload == null) return null;
+
+    synchronized (payload) {
+      if (payload.stale) {
+        payload.encoded = encodePayload(eventKey, payload.encoded);
+        payload.stale = false;
+      }
+      return payload.encoded;
+    }
   }
 
-  public Map<Integer, List<StatisticsPage>> getStatistics(String eventKey) {
-    return eventTeamStatistics.get(eventKey);
+  public EncodedPayload getTeamPayload(String eventKey, int team) {
+    TeamResult result = teamResult(eventKey, team);
+    return result == null ? null : result.payload();
+  }
+
+  /**
+   * @return the team's statistics merged across every event analyzed this
+   *         season, or null if it hasn't been analyzed at any
+   */
+  public EncodedPayload getSeasonPayload(String eventKey, int team) {
+    return seasonProfiles.get(extractYear(eventKey), team);
+  }
+
+  private TeamResult teamResult(String eventKey, int team) {
+    Map<Integer, TeamResult> results = teamResults.get(eventKey);
+    return results == null ? null : results.get(team);
+  }
+
+  private boolean isAffected(String eventKey, Collection<AnalysisInput> changes) {
+    Analyzer<?, ?, ?> analyzer = analyzers.get(extractYear(eventKey));
+    if (analyzer == null) return false;
+
+    for (AnalysisInput input : changes) {
+      if (analyzer.dependsOn(input)) return true;
+    }
+    return false;
   }
 
   private static int extractYear(String eventKey) {
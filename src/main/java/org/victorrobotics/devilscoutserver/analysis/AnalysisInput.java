@@ -0,0 +1,24 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+/**
+ * A source of data that an {@link Analyzer} may read. Caches and submissions
+ * report changes in terms of these, and a team is only re-analyzed if its
+ * analyzer declares the changed input.
+ */
+public enum AnalysisInput {
+  MATCH_ENTRIES,
+  PIT_ENTRIES,
+  DRIVE_TEAM_ENTRIES,
+
+  SCORE_BREAKDOWN,
+
+  OPR,
+  DPR,
+  CCWM,
+
+  WIN_LOSS_RECORD,
+  RANK,
+
+  TEAM_NAME,
+  TEAM_LOCATION;
+}
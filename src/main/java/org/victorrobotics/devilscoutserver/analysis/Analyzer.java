@@ -2,157 +2,449 @@ package org.victorrobotics.devilscoutserver.analysis;
 
 import org.victorrobotics.bluealliance.Match.Alliance;
 import org.victorrobotics.bluealliance.ScoreBreakdown;
-import org.victorrobotics.devilscoutserver.analysis.data.NumberSummary;
 import org.victorrobotics.devilscoutserver.analysis.statistics.StatisticsPage;
 import org.victorrobotics.devilscoutserver.database.DataEntry;
 import org.victorrobotics.devilscoutserver.database.EntryDatabase;
+import org.victorrobotics.devilscoutserver.questions.Questions;
+import org.victorrobotics.devilscoutserver.store.EntryRow;
+import org.victorrobotics.devilscoutserver.store.EntrySchema;
+import org.victorrobotics.devilscoutserver.store.EntryStore;
+import org.victorrobotics.devilscoutserver.store.EntryTable;
 import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache;
 import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchInfo;
-import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchSchedule;
 import org.victorrobotics.devilscoutserver.tba.OprsCache;
 import org.victorrobotics.devilscoutserver.tba.OprsCache.TeamOpr;
 import org.victorrobotics.devilscoutserver.tba.RankingsCache;
 
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
-public abstract class Analyzer<B extends ScoreBreakdown, D> {
-  private final EntryDatabase matchEntryDB;
-  private final EntryDatabase pitEntryDB;
-  private final EntryDatabase driveTeamEntryDB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public abstract class Analyzer<B extends ScoreBreakdown, A extends TeamAggregates, D> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(Analyzer.class);
+
+  private final EntryStore matchEntries;
+  private final EntryStore pitEntries;
+  private final EntryStore driveTeamEntries;
 
   private final MatchScheduleCache matchScheduleCache;
   private final OprsCache          oprsCache;
   private final RankingsCache      rankingsCache;
 
+  private final Set<AnalysisInput> inputs;
+
+  private final ConcurrentMap<String, EntryVerdicts> verdicts;
+  private final ScoutReliability                     scoutReliability;
+
+  private volatile boolean scoutWeighting;
+
   protected Analyzer(EntryDatabase matchEntryDB, EntryDatabase pitEntryDB,
-                     EntryDatabase driveTeamEntryDB, MatchScheduleCache matchScheduleCache,
-                     OprsCache teamOprsCache, RankingsCache rankingsCache) {
-    this.matchEntryDB = matchEntryDB;
-    this.pitEntryDB = pitEntryDB;
-    this.driveTeamEntryDB = driveTeamEntryDB;
+                     EntryDatabase driveTeamEntryDB, Questions questions,
+                     MatchScheduleCache matchScheduleCache, OprsCache teamOprsCache,
+                     RankingsCache rankingsCache, Set<AnalysisInput> inputs) {
+    this.matchEntries =
+        new EntryStore(matchEntryDB, EntrySchema.ofPages(questions.getMatchQuestions()));
+    this.pitEntries = new EntryStore(pitEntryDB, EntrySchema.ofPages(questions.getPitQuestions()));
+    this.driveTeamEntries =
+        new EntryStore(driveTeamEntryDB, EntrySchema.of(questions.getDriveTeamQuestions()));
     this.matchScheduleCache = matchScheduleCache;
     this.oprsCache = teamOprsCache;
     this.rankingsCache = rankingsCache;
+    this.inputs = Set.copyOf(inputs);
+    this.verdicts = new ConcurrentHashMap<>();
+    this.scoutReliability = new ScoutReliability();
   }
 
-  protected abstract boolean isValidMatchEntry(DataEntry matchEntry,
-                                               TeamScoreBreakdown<B> breakdown);
+  /**
+   * Picks out entries that can't be right given the official score breakdown
+   * of the alliance they scouted. Outliers are left out of the aggregates.
+   *
+   * @param entries the alliance's match entries by team, in station order
+   */
+  protected abstract Collection<EntryRow> findOutliers(Map<Integer, List<EntryRow>> entries,
+                                                       B breakdown);
+
+  protected abstract A createAggregates();
+
+  /**
+   * @param weight the reliability of the entry's scout, 1 when weighting is
+   *        off, for averages across a match's entries
+   */
+  protected abstract void addMatchEntry(A aggregates, EntryRow matchEntry, double weight);
+
+  protected abstract void addPitEntry(A aggregates, EntryRow pitEntry);
+
+  protected abstract void addDriveTeamEntry(A aggregates, EntryRow driveTeamEntry);
+
+  /**
+   * Adds {@code from} into {@code into}, as if its entries had been added
+   * there. Entries are grouped by match key, which includes the event key, so
+   * aggregates from different events never overlap.
+   */
+  protected abstract void mergeAggregates(A into, A from);
 
   protected abstract D computeData(Data inputs);
 
   protected abstract List<StatisticsPage> generateStatistics(D data);
 
-  public D computeData(String eventKey, int team) {
-    return computeData(new Data(eventKey, team));
+  /**
+   * Estimates how far each entry is from the official breakdown of the
+   * alliance it scouted, such as the notes it overcounted.
+   *
+   * @param entries the alliance's match entries by team, in station order
+   * @return errors of the entries that can be judged, positive for
+   *         overcounts
+   */
+  protected Map<EntryRow, Double> scoutErrors(Map<Integer, List<EntryRow>> entries,
+                                              B breakdown) {
+    return Map.of();
   }
 
-  protected class Data {
-    private final Map<String, List<DataEntry>> matchEntries;
-    private final Map<String, List<DataEntry>> driveTeamEntries;
+  /**
+   * @return values to rank across the event, keyed by the name of the
+   *         statistic that displays them
+   */
+  protected Map<String, Double> rankedMetrics(D data) {
+    return Map.of();
+  }
 
-    private final List<DataEntry> pitEntries;
+  /**
+   * @return the team's expected contribution to its alliance score, or null
+   *         if it can't be estimated
+   */
+  protected ScoreModel scoreModel(D data) {
+    return null;
+  }
 
-    private final Map<String, TeamScoreBreakdown<B>> scoreBreakdowns;
+  /**
+   * @return how ranking points are awarded, or null to skip ranking
+   *         projections
+   */
+  protected RankingRules rankingRules() {
+    return null;
+  }
 
-    private final TeamOpr            opr;
-    private final RankingsCache.Team rankings;
+  protected RankingModel rankingModel(D data) {
+    return null;
+  }
 
-    Data(String eventKey, int team) {
-      scoreBreakdowns = new LinkedHashMap<>();
-      MatchSchedule schedule = matchScheduleCache.get(eventKey)
-                                                 .value();
-      for (MatchInfo match : schedule.values()) {
-        TeamScoreBreakdown<B> breakdown = resolveBreakdown(match, team);
-        if (breakdown != null) {
-          scoreBreakdowns.put(match.getKey(), breakdown);
-        }
-      }
+  /**
+   * Weights match entries by their scout's reliability in averages. Entries
+   * keep the weights they were added with until the team is rebuilt.
+   */
+  public void setScoutWeighting(boolean scoutWeighting) {
+    this.scoutWeighting = scoutWeighting;
+  }
 
-      try {
-        matchEntries = new LinkedHashMap<>();
-        List<DataEntry> matchEntriesList = matchEntryDB.getEntries(eventKey, team);
-        for (DataEntry entry : matchEntriesList) {
-          TeamScoreBreakdown<B> breakdown = scoreBreakdowns.get(entry.matchKey());
-          if (breakdown == null || isValidMatchEntry(entry, breakdown)) {
-            matchEntries.computeIfAbsent(entry.matchKey(), k -> new ArrayList<>(1))
-                        .add(entry);
-          }
-        }
+  public ScoutReliability getScoutReliability() {
+    return scoutReliability;
+  }
 
-        driveTeamEntries = new LinkedHashMap<>();
-        List<DataEntry> driveTeamEntriesList = driveTeamEntryDB.getEntries(eventKey, team);
-        for (DataEntry entry : driveTeamEntriesList) {
-          driveTeamEntries.computeIfAbsent(entry.matchKey(), k -> new ArrayList<>(1))
-                          .add(entry);
-        }
+  /**
+   * @return whether a change to {@code input} can affect the computed data
+   */
+  public boolean dependsOn(AnalysisInput input) {
+    return inputs.contains(input);
+  }
+
+  /**
+   * Stores a newly submitted entry in memory.
+   *
+   * @return the entry's row, to pass to {@link #addEntry}
+   */
+  public EntryRow recordEntry(AnalysisInput source, DataEntry entry) {
+    return store(source).append(entry);
+  }
+
+  /**
+   * Rereads an event's entries from the database, in case they were changed
+   * there directly.
+   */
+  public void reload(String eventKey) {
+    matchEntries.reload(eventKey);
+    pitEntries.reload(eventKey);
+    driveTeamEntries.reload(eventKey);
+  }
+
+  public void removeStale(Collection<? extends String> activeEvents) {
+    matchEntries.removeStale(activeEvents);
+    pitEntries.removeStale(activeEvents);
+    driveTeamEntries.removeStale(activeEvents);
+    verdicts.keySet()
+            .retainAll(activeEvents);
+  }
 
-        pitEntries = pitEntryDB.getEntries(eventKey, team);
-      } catch (SQLException e) {
-        throw new IllegalStateException(e);
+  /**
+   * Checks the event's match entries against any score breakdowns that are
+   * new or changed since they were last checked, and matches with entries
+   * stored since.
+   *
+   * @return teams with entries that were flagged or cleared, whose aggregates
+   *         need rebuilding
+   */
+  public Set<Integer> reconcile(String eventKey) {
+    EntryVerdicts eventVerdicts = verdicts.computeIfAbsent(eventKey, k -> new EntryVerdicts());
+    EntryTable entries = matchEntries.table(eventKey);
+    Set<Integer> changed = new HashSet<>();
+    for (MatchInfo match : matchScheduleCache.get(eventKey)
+                                             .value()
+                                             .values()) {
+      changed.addAll(reconcile(eventVerdicts, entries, match));
+    }
+    return changed;
+  }
+
+  private Set<Integer> reconcile(EntryVerdicts eventVerdicts, EntryTable entries,
+                                 MatchInfo match) {
+    ScoreBreakdown red = match.getRedBreakdown();
+    ScoreBreakdown blue = match.getBlueBreakdown();
+    if (red == null && blue == null) return Set.of();
+
+    // Most matches are unchanged since last time, so check before copying rows
+    if (eventVerdicts.isCurrent(match.getKey(), red, blue, entries.matchSize(match.getKey()))) {
+      return Set.of();
+    }
+
+    List<EntryRow> rows = entries.matchRows(match.getKey());
+
+    List<EntryRow> outliers = new ArrayList<>();
+    Map<EntryRow, Double> errors = new LinkedHashMap<>();
+    reconcileAlliance(rows, match.getRed(), red, outliers, errors);
+    reconcileAlliance(rows, match.getBlue(), blue, outliers, errors);
+    if (!outliers.isEmpty()) {
+      LOGGER.info("Flagged {} of {} entries for match {}", outliers.size(), rows.size(),
+                  match.getKey());
+    }
+
+    List<String> users = new ArrayList<>(errors.size());
+    double[] userErrors = new double[errors.size()];
+    for (Map.Entry<EntryRow, Double> error : errors.entrySet()) {
+      userErrors[users.size()] = error.getValue();
+      users.add(error.getKey()
+                     .submittingUser());
+    }
+    scoutReliability.update(match.getKey(), users, userErrors);
+    return eventVerdicts.update(match.getKey(), red, blue, rows.size(), outliers);
+  }
+
+  @SuppressWarnings("unchecked") // breakdowns always from current year
+  private void reconcileAlliance(List<EntryRow> rows, int[] alliance, ScoreBreakdown breakdown,
+                                 List<EntryRow> outliers, Map<EntryRow, Double> errors) {
+    if (breakdown == null) return;
+
+    Map<Integer, List<EntryRow>> entries = new LinkedHashMap<>();
+    for (int team : alliance) {
+      entries.put(team, new ArrayList<>());
+    }
+    for (EntryRow row : rows) {
+      List<EntryRow> teamEntries = entries.get(row.scoutedTeam());
+      if (teamEntries != null) {
+        teamEntries.add(row);
       }
+    }
+    outliers.addAll(findOutliers(entries, (B) breakdown));
+    errors.putAll(scoutErrors(entries, (B) breakdown));
+  }
 
-      opr = oprsCache.get(eventKey)
-                     .value()
-                     .get(team);
+  /**
+   * @return match entries checked against score breakdowns, across events
+   */
+  public int checkedEntryCount() {
+    int count = 0;
+    for (EntryVerdicts eventVerdicts : verdicts.values()) {
+      count += eventVerdicts.checkedCount();
+    }
+    return count;
+  }
 
-      rankings = rankingsCache.get(eventKey)
-                              .value()
-                              .get(team);
+  /**
+   * @return match entries left out for disagreeing with score breakdowns,
+   *         across events
+   */
+  public int flaggedEntryCount() {
+    int count = 0;
+    for (EntryVerdicts eventVerdicts : verdicts.values()) {
+      count += eventVerdicts.flaggedCount();
     }
+    return count;
+  }
 
-    @SuppressWarnings("unchecked") // breakdowns always from current year
-    private TeamScoreBreakdown<B> resolveBreakdown(MatchInfo match, int team) {
-      if (match.getRedBreakdown() != null) {
-        int[] redAlliance = match.getRed();
-        for (int i = 0; i < redAlliance.length; i++) {
-          if (redAlliance[i] == team) {
-            return new TeamScoreBreakdown<>(match, (B) match.getRedBreakdown(), Alliance.Color.RED,
-                                            i);
-          }
-        }
+  /**
+   * Rebuilds a team's aggregates from every stored entry.
+   */
+  public A loadAggregates(String eventKey, int team) {
+    return loadEventAggregates(eventKey, Set.of(team)).get(team);
+  }
+
+  /**
+   * Rebuilds aggregates for several teams at once with a single scan of each
+   * of the event's entry tables. Entries for other teams are skipped.
+   */
+  public Map<Integer, A> loadEventAggregates(String eventKey, Collection<Integer> teams) {
+    Map<Integer, A> aggregates = new HashMap<>();
+    for (Integer team : teams) {
+      aggregates.put(team, createAggregates());
+    }
+
+    addEventEntries(aggregates, AnalysisInput.MATCH_ENTRIES, matchEntries.table(eventKey));
+    addEventEntries(aggregates, AnalysisInput.PIT_ENTRIES, pitEntries.table(eventKey));
+    addEventEntries(aggregates, AnalysisInput.DRIVE_TEAM_ENTRIES,
+                    driveTeamEntries.table(eventKey));
+    return aggregates;
+  }
+
+  private void addEventEntries(Map<Integer, A> aggregates, AnalysisInput source,
+                               EntryTable entries) {
+    entries.scan(row -> {
+      A teamAggregates = aggregates.get(row.scoutedTeam());
+      if (teamAggregates != null) {
+        addEntry(teamAggregates, source, row);
       }
+    });
+  }
 
-      if (match.getBlueBreakdown() != null) {
-        int[] blueAlliance = match.getBlue();
-        for (int i = 0; i < blueAlliance.length; i++) {
-          if (blueAlliance[i] == team) {
-            return new TeamScoreBreakdown<>(match, (B) match.getBlueBreakdown(),
-                                            Alliance.Color.BLUE, i);
-          }
+  /**
+   * Folds a single entry into existing aggregates. Entries that were already
+   * counted are ignored, so replaying an entry is harmless. Match entries
+   * flagged by {@link #reconcile} are skipped.
+   */
+  public void addEntry(A aggregates, AnalysisInput source, EntryRow entry) {
+    if (!aggregates.markCounted(source, store(source).currentRow(entry))) return;
+
+    switch (source) {
+      case MATCH_ENTRIES -> {
+        if (!isFlagged(entry)) {
+          double weight = scoutWeighting ? scoutReliability.weight(entry.submittingUser()) : 1;
+          addMatchEntry(aggregates, entry, weight);
         }
       }
+      case PIT_ENTRIES -> addPitEntry(aggregates, entry);
+      case DRIVE_TEAM_ENTRIES -> addDriveTeamEntry(aggregates, entry);
+      default -> throw new IllegalArgumentException("Not an entry source: " + source);
+    }
+  }
+
+  private EntryStore store(AnalysisInput source) {
+    return switch (source) {
+      case MATCH_ENTRIES -> matchEntries;
+      case PIT_ENTRIES -> pitEntries;
+      case DRIVE_TEAM_ENTRIES -> driveTeamEntries;
+      default -> throw new IllegalArgumentException("Not an entry source: " + source);
+    };
+  }
+
+  public D computeData(String eventKey, int team, A aggregates) {
+    return prepareEvent(eventKey, Set.of(team)).compute(team, aggregates);
+  }
 
-      return null;
+  /**
+   * Looks up the event's score breakdowns, OPRs and rankings once, to compute
+   * data for many of its teams with a single walk of the match schedule.
+   *
+   * @param teams the only teams that will be computed, whose breakdowns to
+   *        collect
+   */
+  public EventData<A, D> prepareEvent(String eventKey, Collection<Integer> teams) {
+    Map<Integer, Map<String, TeamScoreBreakdown<B>>> scoreBreakdowns = new HashMap<>();
+    for (MatchInfo match : matchScheduleCache.get(eventKey)
+                                             .value()
+                                             .values()) {
+      addBreakdowns(scoreBreakdowns, teams, match, match.getRed(), match.getRedBreakdown(),
+                    Alliance.Color.RED);
+      addBreakdowns(scoreBreakdowns, teams, match, match.getBlue(), match.getBlueBreakdown(),
+                    Alliance.Color.BLUE);
     }
 
-    public Collection<List<DataEntry>> getMatchEntries() {
-      return matchEntries.values();
+    OprsCache.Oprs oprs = oprsCache.get(eventKey)
+                                   .value();
+    RankingsCache.Rankings rankings = rankingsCache.get(eventKey)
+                                                   .value();
+    return (team, aggregates) -> computeData(new Data(aggregates,
+                                                      scoreBreakdowns.getOrDefault(team,
+                                                                                   Map.of()),
+                                                      oprs.get(team), rankings.get(team)));
+  }
+
+  @SuppressWarnings("unchecked") // breakdowns always from current year
+  private void addBreakdowns(Map<Integer, Map<String, TeamScoreBreakdown<B>>> scoreBreakdowns,
+                             Collection<Integer> teams, MatchInfo match, int[] alliance,
+                             ScoreBreakdown breakdown, Alliance.Color color) {
+    if (breakdown == null) return;
+
+    for (int i = 0; i < alliance.length; i++) {
+      if (!teams.contains(alliance[i])) continue;
+
+      scoreBreakdowns.computeIfAbsent(alliance[i], k -> new LinkedHashMap<>())
+                     .put(match.getKey(),
+                          new TeamScoreBreakdown<>(match, (B) breakdown, color, i));
     }
+  }
 
-    public Map<String, List<DataEntry>> getMatchEntriesRaw() {
-      return matchEntries;
+  /**
+   * Combines aggregates into a new instance, leaving the inputs untouched.
+   */
+  public A mergeAggregates(Collection<? extends A> aggregates) {
+    A merged = createAggregates();
+    for (A source : aggregates) {
+      mergeInto(merged, source);
     }
+    return merged;
+  }
+
+  void mergeInto(A into, A from) {
+    into.mergeCounted(from);
+    mergeAggregates(into, from);
+  }
+
+  /**
+   * Computes data from aggregates alone, without any one event's score
+   * breakdowns, OPRs or rankings.
+   */
+  public D computeSeasonData(A aggregates) {
+    return computeData(new Data(aggregates));
+  }
 
-    public Collection<List<DataEntry>> getDriveTeamEntries() {
-      return driveTeamEntries.values();
+  private boolean isFlagged(EntryRow matchEntry) {
+    EntryVerdicts eventVerdicts = verdicts.get(matchEntry.eventKey());
+    return eventVerdicts != null && eventVerdicts.isFlagged(matchEntry.matchKey(),
+                                                            matchEntry.id());
+  }
+
+  protected class Data {
+    private final A aggregates;
+
+    private final Map<String, TeamScoreBreakdown<B>> scoreBreakdowns;
+
+    private final TeamOpr            opr;
+    private final RankingsCache.Team rankings;
+
+    Data(A aggregates, Map<String, TeamScoreBreakdown<B>> scoreBreakdowns, TeamOpr opr,
+         RankingsCache.Team rankings) {
+      this.aggregates = aggregates;
+      this.scoreBreakdowns = scoreBreakdowns;
+      this.opr = opr;
+      this.rankings = rankings;
     }
 
-    public Map<String, List<DataEntry>> getDriveTeamEntriesRaw() {
-      return driveTeamEntries;
+    Data(A aggregates) {
+      this(aggregates, Map.of(), null, null);
     }
 
-    public List<DataEntry> getPitEntries() {
-      return pitEntries;
+    public A getAggregates() {
+      return aggregates;
     }
 
     public Collection<TeamScoreBreakdown<B>> getScoreBreakdowns() {
@@ -168,6 +460,14 @@ public abstract class Analyzer<B extends ScoreBreakdown, D> {
     }
   }
 
+  /**
+   * Computes data for teams at one event, from inputs looked up in advance.
+   */
+  @FunctionalInterface
+  public interface EventData<A, D> {
+    D compute(int team, A aggregates);
+  }
+
   @SuppressWarnings("java:S1105") // braces (false positive)
   protected record TeamScoreBreakdown<B extends ScoreBreakdown>(MatchInfo match,
                                                                 B breakdown,
@@ -181,9 +481,11 @@ public abstract class Analyzer<B extends ScoreBreakdown, D> {
 
   protected static <T> Collection<T> extractData(Collection<DataEntry> entries,
                                                  Function<DataEntry, T> extractor) {
-    return entries.stream()
-                  .map(extractor::apply)
-                  .toList();
+    List<T> data = new ArrayList<>(entries.size());
+    for (DataEntry entry : entries) {
+      data.add(extractor.apply(entry));
+    }
+    return data;
   }
 
   protected static <I, T>
@@ -198,79 +500,11 @@ public abstract class Analyzer<B extends ScoreBreakdown, D> {
       Collection<T>
       extractMergeData(Collection<? extends Collection<DataEntry>> entries,
                        Function<DataEntry, I> extractor, Function<Collection<I>, T> reducer) {
-    return entries.stream()
-                  .map(e -> extractData(e, extractor))
-                  .map(reducer)
-                  .toList();
-  }
-
-  protected static Double average(Iterable<? extends Number> data) {
-    int count = 0;
-    double sum = 0;
-    for (Number num : data) {
-      if (num != null) {
-        sum += num.doubleValue();
-        count++;
-      }
-    }
-    return count == 0 ? null : Double.valueOf(sum / count);
-  }
-
-  protected static <T> T mostCommon(Collection<T> data) {
-    Map<T, Long> counts = data.stream()
-                              .collect(Collectors.groupingBy(x -> x, Collectors.counting()));
-    T mostCommon = null;
-    long maxCount = 0;
-    for (Map.Entry<T, Long> entry : counts.entrySet()) {
-      if (entry.getValue() > maxCount) {
-        maxCount = entry.getValue();
-        mostCommon = entry.getKey();
-      }
-    }
-    return mostCommon;
-  }
-
-  protected static NumberSummary summarizeNumbers(Iterable<? extends Number> data) {
-    int count = 0;
-    double min = Double.POSITIVE_INFINITY;
-    double max = Double.NEGATIVE_INFINITY;
-    double sum = 0;
-    double sumSquared = 0;
-
-    for (Number number : data) {
-      if (number == null) continue;
-
-      double val = number.doubleValue();
-      sum += val;
-      sumSquared += val * val;
-      count++;
-
-      if (val > max) {
-        max = val;
-      }
-      if (val < min) {
-        min = val;
-      }
-    }
-
-    if (count == 0) {
-      return NumberSummary.NO_DATA;
-    }
-
-    double mean = sum / count;
-    double stddev = Math.sqrt(Math.abs(sumSquared - (sum * sum / count)) / count);
-
-    return new NumberSummary(count, min, max, mean, stddev);
-  }
-
-  protected static <T extends Comparable<T>> Map<T, Integer> countDistinct(Iterable<T> data) {
-    Map<T, Integer> map = new TreeMap<>(); // for sorted keys
-    for (T item : data) {
-      if (item != null) {
-        map.compute(item, (k, count) -> count == null ? 1 : (count + 1));
-      }
+    List<T> data = new ArrayList<>(entries.size());
+    for (Collection<DataEntry> group : entries) {
+      data.add(reducer.apply(extractData(group, extractor)));
     }
-    return map;
+    return data;
   }
 
   protected static <I, T> T mapSingle(I input, Function<I, T> mapper) {
@@ -298,25 +532,13 @@ public abstract class Analyzer<B extends ScoreBreakdown, D> {
   }
 
   protected static <T> int count(Collection<T> data, Predicate<T> condition) {
-    return (int) data.stream().filter(condition).count();
-  }
-
-  protected static <T> Map<T, Integer> averageCounts(Collection<Map<T, Integer>> allCounts) {
-    int size = allCounts.size();
-    Map<T, Integer> counts = sumCounts(allCounts);
-    counts.replaceAll((key, count) -> (int) Math.round((double) count / size));
-    return counts;
-  }
-
-  protected static <T> Map<T, Integer> sumCounts(Collection<Map<T, Integer>> allCounts) {
-    Map<T, Integer> counts = new LinkedHashMap<>();
-    for (Map<T, Integer> c : allCounts) {
-      for (Map.Entry<T, Integer> entry : c.entrySet()) {
-        counts.compute(entry.getKey(), (key, count) -> count == null ? entry.getValue()
-            : (count + entry.getValue()));
+    int count = 0;
+    for (T item : data) {
+      if (condition.test(item)) {
+        count++;
       }
     }
-    return counts;
+    return count;
   }
 
   protected static <K, V> Map<K, V> nullableMap(Collection<Map.Entry<K, V>> entries) {
@@ -0,0 +1,154 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Releases keys once they have gone a fixed delay without being scheduled
+ * again.
+ * <p>
+ * Every key waits the same amount of time, so deadlines are enqueued in
+ * increasing order and a plain FIFO queue stays sorted. Rescheduling only
+ * replaces the deadline in the map and appends a new token; tokens whose
+ * deadline no longer matches the map are discarded when they reach the head.
+ */
+public class Debouncer<K> {
+  private record Token<K>(K key,
+                          long deadline) {}
+
+  private final long delayNanos;
+
+  private final ConcurrentMap<K, Long> deadlines;
+  private final Deque<Token<K>>        tokens;
+  private final ReentrantLock          lock;
+  private final Condition              headChanged;
+
+  public Debouncer(long delay, TimeUnit unit) {
+    this.delayNanos = unit.toNanos(delay);
+    this.deadlines = new ConcurrentHashMap<>();
+    this.tokens = new ArrayDeque<>();
+    this.lock = new ReentrantLock();
+    this.headChanged = lock.newCondition();
+  }
+
+  /**
+   * @return true if the key was not already pending
+   */
+  public boolean schedule(K key) {
+    long deadline = System.nanoTime() + delayNanos;
+    boolean added = deadlines.put(key, deadline) == null;
+
+    lock.lock();
+    try {
+      enqueue(new Token<>(key, deadline));
+    } finally {
+      lock.unlock();
+    }
+    return added;
+  }
+
+  /**
+   * Schedules every key with the same deadline, taking the queue lock once.
+   *
+   * @return the number of keys that were not already pending
+   */
+  public int scheduleAll(Collection<? extends K> keys) {
+    long deadline = System.nanoTime() + delayNanos;
+    int added = 0;
+    for (K key : keys) {
+      if (deadlines.put(key, deadline) == null) {
+        added++;
+      }
+    }
+
+    lock.lock();
+    try {
+      for (K key : keys) {
+        enqueue(new Token<>(key, deadline));
+      }
+    } finally {
+      lock.unlock();
+    }
+    return added;
+  }
+
+  /**
+   * Makes pending keys matching the filter due immediately.
+   *
+   * @return the number of keys released early
+   */
+  public int expedite(Predicate<? super K> filter) {
+    long now = System.nanoTime();
+    int count = 0;
+
+    lock.lock();
+    try {
+      for (Map.Entry<K, Long> entry : deadlines.entrySet()) {
+        K key = entry.getKey();
+        if (filter.test(key) && deadlines.replace(key, entry.getValue(), now)) {
+          // Nothing is due earlier than now, so the head is still in order
+          tokens.addFirst(new Token<>(key, now));
+          count++;
+        }
+      }
+      if (count != 0) {
+        headChanged.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+    return count;
+  }
+
+  /**
+   * Blocks until a key is due, then removes and returns it.
+   */
+  public K take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (true) {
+        Token<K> head = tokens.peekFirst();
+        if (head == null) {
+          headChanged.await();
+          continue;
+        }
+
+        long wait = head.deadline() - System.nanoTime();
+        if (wait > 0) {
+          headChanged.awaitNanos(wait);
+          continue;
+        }
+
+        tokens.pollFirst();
+        if (deadlines.remove(head.key(), head.deadline())) {
+          return head.key();
+        }
+        // Stale token, the key was rescheduled or released already
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of keys waiting to be released
+   */
+  public int size() {
+    return deadlines.size();
+  }
+
+  private void enqueue(Token<K> token) {
+    tokens.addLast(token);
+    if (tokens.size() == 1) {
+      headChanged.signalAll();
+    }
+  }
+}
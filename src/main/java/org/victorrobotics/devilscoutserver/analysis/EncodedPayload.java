@@ -0,0 +1,27 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import static org.victorrobotics.devilscoutserver.EncodingUtil.gzip;
+
+/**
+ * A JSON response body serialized ahead of time, with a gzipped copy for
+ * clients that accept it. The version doubles as the ETag.
+ */
+@SuppressWarnings("java:S6218") // never compared
+public record EncodedPayload(long version,
+                             byte[] json,
+                             byte[] gzipped) {
+  public static EncodedPayload of(long version, byte[] json) {
+    return new EncodedPayload(version, json, gzip(json));
+  }
+
+  /**
+   * Versions are ETags, so they must increase even within a millisecond.
+   */
+  public static long nextVersion(EncodedPayload previous) {
+    long version = System.currentTimeMillis();
+    if (previous != null && previous.version() >= version) {
+      version = previous.version() + 1;
+    }
+    return version;
+  }
+}
@@ -0,0 +1,93 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import org.victorrobotics.bluealliance.ScoreBreakdown;
+import org.victorrobotics.devilscoutserver.store.EntryRow;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which of an event's match entries disagree with the official score
+ * breakdowns. A match is checked once when its breakdowns arrive or change,
+ * and again when another entry for it is stored, so aggregating an entry only
+ * looks up its verdict.
+ */
+final class EntryVerdicts {
+  // Flagged maps entry ID to the team it scouted
+  private record MatchVerdict(ScoreBreakdown red,
+                              ScoreBreakdown blue,
+                              int entries,
+                              Map<String, Integer> flagged) {}
+
+  private final Map<String, MatchVerdict> matches;
+
+  private int checkedCount;
+  private int flaggedCount;
+
+  EntryVerdicts() {
+    this.matches = new HashMap<>();
+  }
+
+  /**
+   * @return whether the match was already checked against these breakdowns
+   *         with at least this many entries
+   */
+  synchronized boolean isCurrent(String matchKey, ScoreBreakdown red, ScoreBreakdown blue,
+                                 int entries) {
+    MatchVerdict verdict = matches.get(matchKey);
+    return verdict != null && verdict.red() == red && verdict.blue() == blue
+        && verdict.entries() >= entries;
+  }
+
+  synchronized boolean isFlagged(String matchKey, String entryId) {
+    MatchVerdict verdict = matches.get(matchKey);
+    return verdict != null && verdict.flagged()
+                                     .containsKey(entryId);
+  }
+
+  /**
+   * Stores the verdict for a match, unless a check with more entries already
+   * finished first.
+   *
+   * @return teams with entries that were flagged or cleared
+   */
+  synchronized Set<Integer> update(String matchKey, ScoreBreakdown red, ScoreBreakdown blue,
+                                   int entries, Collection<EntryRow> outliers) {
+    if (isCurrent(matchKey, red, blue, entries)) return Set.of();
+
+    Map<String, Integer> flagged = new HashMap<>();
+    for (EntryRow outlier : outliers) {
+      flagged.put(outlier.id(), outlier.scoutedTeam());
+    }
+
+    MatchVerdict previous =
+        matches.put(matchKey, new MatchVerdict(red, blue, entries, Map.copyOf(flagged)));
+    Map<String, Integer> previousFlagged = previous == null ? Map.of() : previous.flagged();
+    checkedCount += entries - (previous == null ? 0 : previous.entries());
+    flaggedCount += flagged.size() - previousFlagged.size();
+
+    Set<Integer> changed = new HashSet<>();
+    for (Map.Entry<String, Integer> entry : flagged.entrySet()) {
+      if (!previousFlagged.containsKey(entry.getKey())) {
+        changed.add(entry.getValue());
+      }
+    }
+    for (Map.Entry<String, Integer> entry : previousFlagged.entrySet()) {
+      if (!flagged.containsKey(entry.getKey())) {
+        changed.add(entry.getValue());
+      }
+    }
+    return changed;
+  }
+
+  synchronized int checkedCount() {
+    return checkedCount;
+  }
+
+  synchronized int flaggedCount() {
+    return flaggedCount;
+  }
+}
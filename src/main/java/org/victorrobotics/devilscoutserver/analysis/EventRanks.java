@@ -0,0 +1,144 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Ranks of every team's numeric metrics within one event. Values are updated
+ * as teams refresh, and only metrics whose values changed are re-sorted.
+ * Access is synchronized on the instance.
+ */
+final class EventRanks {
+  /**
+   * @param rank 1 for the highest value, shared on ties
+   * @param percentile share of teams below, counting ties as half
+   */
+  record Rank(int rank,
+              double percentile) {}
+
+  private final Map<String, Map<Integer, Double>> values;
+  private final Map<Integer, Map<String, Rank>>   ranks;
+  private final Set<String>                       dirty;
+
+  EventRanks() {
+    this.values = new HashMap<>();
+    this.ranks = new HashMap<>();
+    this.dirty = new HashSet<>();
+  }
+
+  /**
+   * Replaces the team's metric values. Null and non-finite values are
+   * unranked.
+   */
+  synchronized void update(int team, Map<String, Double> metrics) {
+    for (Map.Entry<String, Map<Integer, Double>> entry : values.entrySet()) {
+      if (!metrics.containsKey(entry.getKey()) && entry.getValue()
+                                                       .remove(team) != null) {
+        dirty.add(entry.getKey());
+      }
+    }
+
+    for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+      Double value = metric.getValue();
+      if (value != null && !Double.isFinite(value)) {
+        value = null;
+      }
+
+      Map<Integer, Double> teams = values.computeIfAbsent(metric.getKey(), k -> new HashMap<>());
+      Double previous = value == null ? teams.remove(team) : teams.put(team, value);
+      if (!Objects.equals(previous, value)) {
+        dirty.add(metric.getKey());
+      }
+    }
+  }
+
+  synchronized void remove(int team) {
+    update(team, Map.of());
+  }
+
+  synchronized Map<String, Rank> get(int team) {
+    Map<String, Rank> teamRanks = ranks.get(team);
+    return teamRanks == null ? Map.of() : Map.copyOf(teamRanks);
+  }
+
+  /**
+   * Re-sorts every metric that changed since the last call.
+   *
+   * @return the teams whose ranks changed
+   */
+  synchronized Set<Integer> rerank() {
+    Set<Integer> changed = new HashSet<>();
+    for (String metric : dirty) {
+      Map<Integer, Double> teams = values.getOrDefault(metric, Map.of());
+
+      double[] sorted = new double[teams.size()];
+      int count = 0;
+      for (Double value : teams.values()) {
+        sorted[count++] = value;
+      }
+      Arrays.sort(sorted);
+
+      for (Map.Entry<Integer, Map<String, Rank>> entry : ranks.entrySet()) {
+        if (!teams.containsKey(entry.getKey()) && entry.getValue()
+                                                       .remove(metric) != null) {
+          changed.add(entry.getKey());
+        }
+      }
+
+      for (Map.Entry<Integer, Double> entry : teams.entrySet()) {
+        Rank rank = rank(sorted, entry.getValue());
+        Rank previous = ranks.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+                             .put(metric, rank);
+        if (!rank.equals(previous)) {
+          changed.add(entry.getKey());
+        }
+      }
+    }
+    dirty.clear();
+    ranks.values()
+         .removeIf(Map::isEmpty);
+    return changed;
+  }
+
+  private static Rank rank(double[] sorted, double value) {
+    int below = lowerBound(sorted, value);
+    int notAbove = upperBound(sorted, value);
+    int above = sorted.length - notAbove;
+    double percentile = 100 * (below + (notAbove - below) / 2.0) / sorted.length;
+    return new Rank(above + 1, percentile);
+  }
+
+  // First index with a value >= the key
+  private static int lowerBound(double[] sorted, double key) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  // First index with a value > the key
+  private static int upperBound(double[] sorted, double key) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,19 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+/**
+ * Simulated outcome of an unplayed match. Ties count as half a win for each
+ * alliance.
+ */
+public record MatchPrediction(String key,
+                              String name,
+                              double redWinProbability,
+                              double blueWinProbability,
+                              ScoreInterval redScore,
+                              ScoreInterval blueScore) {
+  /**
+   * 10th percentile, median and 90th percentile of simulated scores.
+   */
+  public record ScoreInterval(double low,
+                              double median,
+                              double high) {}
+}
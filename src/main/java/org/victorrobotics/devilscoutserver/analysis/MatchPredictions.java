@@ -0,0 +1,180 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import static org.victorrobotics.devilscoutserver.EncodingUtil.jsonEncodeBytes;
+
+import org.victorrobotics.devilscoutserver.analysis.MatchPrediction.ScoreInterval;
+import org.victorrobotics.devilscoutserver.cache.Cache;
+import org.victorrobotics.devilscoutserver.pipeline.Refreshable;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchInfo;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchSchedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Predicts every unplayed match at an event by simulating it many times from
+ * each team's {@link ScoreModel}. Matches are simulated in parallel on the
+ * common fork-join pool.
+ * <p>
+ * Each match is seeded from its key, so unchanged inputs give an identical
+ * payload and keep the same version.
+ */
+public class MatchPredictions implements Refreshable<String> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MatchPredictions.class);
+
+  private static final int TRIALS = 10_000;
+
+  private final AnalysisCache      analysisCache;
+  private final MatchScheduleCache matchScheduleCache;
+
+  private final ConcurrentMap<String, Map<String, MatchPrediction>> eventPredictions;
+  private final ConcurrentMap<String, EncodedPayload>               eventPayloads;
+
+  public MatchPredictions(AnalysisCache analysisCache, MatchScheduleCache matchScheduleCache) {
+    this.analysisCache = analysisCache;
+    this.matchScheduleCache = matchScheduleCache;
+    this.eventPredictions = new ConcurrentHashMap<>();
+    this.eventPayloads = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public boolean refresh(String eventKey) {
+    long start = System.currentTimeMillis();
+    Cache.Value<?, MatchSchedule> schedule = matchScheduleCache.get(eventKey);
+    Map<Integer, ScoreModel> models = analysisCache.getScoreModels(eventKey);
+    if (schedule == null || models.isEmpty()) {
+      eventPredictions.remove(eventKey);
+      return eventPayloads.remove(eventKey) != null;
+    }
+
+    ScoreModel fallback = average(models.values());
+    List<MatchInfo> upcoming = new ArrayList<>();
+    for (MatchInfo match : schedule.value()
+                                   .values()) {
+      // Playoff alliances may not be known yet
+      if (!match.isCompleted() && match.getRed().length != 0 && match.getBlue().length != 0) {
+        upcoming.add(match);
+      }
+    }
+
+    List<MatchPrediction> predictions = upcoming.parallelStream()
+                                                .map(match -> simulate(match, models, fallback))
+                                                .toList();
+    byte[] json = jsonEncodeBytes(predictions);
+
+    Map<String, MatchPrediction> byKey = new HashMap<>();
+    for (MatchPrediction prediction : predictions) {
+      byKey.put(prediction.key(), prediction);
+    }
+    eventPredictions.put(eventKey, byKey);
+
+    boolean[] changed = new boolean[1];
+    eventPayloads.compute(eventKey, (k, previous) -> {
+      if (previous != null && Arrays.equals(previous.json(), json)) {
+        return previous;
+      }
+      changed[0] = true;
+      return EncodedPayload.of(EncodedPayload.nextVersion(previous), json);
+    });
+
+    LOGGER.info("Predicted {} matches at event {} in {}ms", predictions.size(), eventKey,
+                System.currentTimeMillis() - start);
+    return changed[0];
+  }
+
+  @Override
+  public void removeStale(Collection<? extends String> activeKeys) {
+    eventPredictions.keySet()
+                    .retainAll(activeKeys);
+    eventPayloads.keySet()
+                 .retainAll(activeKeys);
+  }
+
+  public EncodedPayload get(String eventKey) {
+    return eventPayloads.get(eventKey);
+  }
+
+  /**
+   * @return predictions by match key, empty if none have been made
+   */
+  public Map<String, MatchPrediction> getPredictions(String eventKey) {
+    return eventPredictions.getOrDefault(eventKey, Map.of());
+  }
+
+  private static MatchPrediction simulate(MatchInfo match, Map<Integer, ScoreModel> models,
+                                          ScoreModel fallback) {
+    ScoreModel[] red = models(match.getRed(), models, fallback);
+    ScoreModel[] blue = models(match.getBlue(), models, fallback);
+
+    SplittableRandom random = new SplittableRandom(match.getKey()
+                                                        .hashCode());
+    double[] redScores = new double[TRIALS];
+    double[] blueScores = new double[TRIALS];
+    double redWins = 0;
+    for (int i = 0; i < TRIALS; i++) {
+      redScores[i] = allianceScore(red, random);
+      blueScores[i] = allianceScore(blue, random);
+      if (redScores[i] > blueScores[i]) {
+        redWins++;
+      } else if (redScores[i] == blueScores[i]) {
+        redWins += 0.5;
+      }
+    }
+
+    double redWinProbability = round(redWins / TRIALS, 1000);
+    return new MatchPrediction(match.getKey(), match.getName(), redWinProbability,
+                               round(1 - redWinProbability, 1000), interval(redScores),
+                               interval(blueScores));
+  }
+
+  private static ScoreModel[] models(int[] teams, Map<Integer, ScoreModel> models,
+                                     ScoreModel fallback) {
+    ScoreModel[] alliance = new ScoreModel[teams.length];
+    for (int i = 0; i < teams.length; i++) {
+      alliance[i] = models.getOrDefault(teams[i], fallback);
+    }
+    return alliance;
+  }
+
+  private static double allianceScore(ScoreModel[] alliance, SplittableRandom random) {
+    double score = 0;
+    for (ScoreModel team : alliance) {
+      // A team can't take points away from its alliance
+      score += Math.max(0, team.mean() + team.stddev() * random.nextGaussian());
+    }
+    return score;
+  }
+
+  private static ScoreInterval interval(double[] scores) {
+    Arrays.sort(scores);
+    return new ScoreInterval(round(scores[scores.length / 10], 10),
+                             round(scores[scores.length / 2], 10),
+                             round(scores[scores.length * 9 / 10], 10));
+  }
+
+  // Unknown teams are treated as an average team at the event
+  private static ScoreModel average(Collection<ScoreModel> models) {
+    double mean = 0;
+    double stddev = 0;
+    for (ScoreModel model : models) {
+      mean += model.mean();
+      stddev += model.stddev();
+    }
+    return new ScoreModel(mean / models.size(), stddev / models.size());
+  }
+
+  private static double round(double value, int scale) {
+    return (double) Math.round(value * scale) / scale;
+  }
+}
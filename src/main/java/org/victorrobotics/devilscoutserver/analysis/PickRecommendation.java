@@ -0,0 +1,19 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import java.util.List;
+
+/**
+ * Best available picks for the alliance currently choosing, best first.
+ * {@code alliance} is 1-based, or 0 if the board is already full.
+ */
+public record PickRecommendation(int alliance,
+                                 List<Candidate> candidates) {
+  /**
+   * {@code projectedPartner} is the team this alliance is expected to get with
+   * its next pick, or 0 if this is its last pick. {@code winProbability} is
+   * against a typical playoff alliance at the event.
+   */
+  public record Candidate(int team,
+                          int projectedPartner,
+                          double winProbability) {}
+}
@@ -0,0 +1,13 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+/**
+ * A team's qualification standing so far, and how often its alliances have
+ * achieved each bonus of the season's {@link RankingRules}.
+ *
+ * @param bonusRates indexed like {@link RankingRules#bonuses()}, or null if
+ *        the team hasn't played yet
+ */
+@SuppressWarnings("java:S6218") // never compared
+public record RankingModel(int rankingPoints,
+                           int matchesPlayed,
+                           double[] bonusRates) {}
@@ -0,0 +1,14 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+/**
+ * Distribution of a team's final qualification rank.
+ *
+ * @param currentRank 0 if not ranked yet
+ * @param rankProbabilities probability of finishing at each rank, starting
+ *        with first
+ */
+@SuppressWarnings("java:S6218") // never compared
+public record RankingProjection(int team,
+                                int currentRank,
+                                double meanRank,
+                                double[] rankProbabilities) {}
@@ -0,0 +1,360 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import static org.victorrobotics.devilscoutserver.EncodingUtil.jsonEncodeBytes;
+
+import org.victorrobotics.bluealliance.Event.WinLossRecord;
+import org.victorrobotics.devilscoutserver.cache.Cache;
+import org.victorrobotics.devilscoutserver.pipeline.Refreshable;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchInfo;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchLevel;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchSchedule;
+import org.victorrobotics.devilscoutserver.tba.RankingsCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Projects final qualification rankings by simulating the remaining
+ * qualification matches many times. Match winners are drawn from
+ * {@link MatchPredictions}, and bonuses from how often each team's alliances
+ * have achieved them so far.
+ * <p>
+ * Trials run in parallel batches on the common fork-join pool. Each batch
+ * keeps its state in a few primitive arrays that are reused across trials.
+ * Projections are only recomputed when something a trial reads changes:
+ * remaining matches, ranking points, bonus rates or win probabilities.
+ */
+public class RankingProjections implements Refreshable<String> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RankingProjections.class);
+
+  private static final int TRIALS  = 20_000;
+  private static final int BATCHES = 16;
+
+  // Sort keys pack average ranking points, a random tiebreak and the team index
+  private static final int  INDEX_BITS    = 11;
+  private static final int  TIEBREAK_BITS = 20;
+  private static final long SCORE_SCALE   = 1_000_000;
+
+  private record Projection(long fingerprint,
+                            EncodedPayload payload) {}
+
+  /**
+   * Everything a trial reads, flattened into arrays. Alliance {@code 2i} is
+   * red and {@code 2i + 1} blue in remaining match {@code i}.
+   */
+  private record Simulation(int teamCount,
+                            int[] baseRankingPoints,
+                            int[] totalMatches,
+                            int[] allianceOffsets,
+                            int[] allianceTeams,
+                            double[] redWinProbabilities,
+                            double[] bonusProbabilities,
+                            int bonusCount,
+                            RankingRules rules) {}
+
+  private final AnalysisCache      analysisCache;
+  private final MatchPredictions   matchPredictions;
+  private final MatchScheduleCache matchScheduleCache;
+  private final RankingsCache      rankingsCache;
+
+  private final ConcurrentMap<String, Projection> projections;
+
+  public RankingProjections(AnalysisCache analysisCache, MatchPredictions matchPredictions,
+                            MatchScheduleCache matchScheduleCache, RankingsCache rankingsCache) {
+    this.analysisCache = analysisCache;
+    this.matchPredictions = matchPredictions;
+    this.matchScheduleCache = matchScheduleCache;
+    this.rankingsCache = rankingsCache;
+    this.projections = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public boolean refresh(String eventKey) {
+    long start = System.currentTimeMillis();
+    RankingRules rules = analysisCache.getRankingRules(eventKey);
+    Cache.Value<?, MatchSchedule> schedule = matchScheduleCache.get(eventKey);
+    if (rules == null || schedule == null) {
+      return projections.remove(eventKey) != null;
+    }
+
+    List<MatchInfo> remaining = new ArrayList<>();
+    Map<Integer, Integer> teamIndices = new LinkedHashMap<>();
+    for (MatchInfo match : schedule.value()
+                                   .values()) {
+      if (match.getLevel() != MatchLevel.QUAL) continue;
+
+      addTeams(teamIndices, match.getRed());
+      addTeams(teamIndices, match.getBlue());
+      if (!match.isCompleted() && match.getRed().length != 0 && match.getBlue().length != 0) {
+        remaining.add(match);
+      }
+    }
+    if (teamIndices.isEmpty() || teamIndices.size() >= 1 << INDEX_BITS) {
+      return projections.remove(eventKey) != null;
+    }
+
+    Map<Integer, RankingModel> models = analysisCache.getRankingModels(eventKey);
+    Simulation simulation = prepare(eventKey, rules, teamIndices, remaining, models);
+    long fingerprint = 31 * fingerprint(simulation) + teamIndices.hashCode();
+
+    Projection previous = projections.get(eventKey);
+    if (previous != null && previous.fingerprint() == fingerprint) return false;
+
+    SplittableRandom root = new SplittableRandom(eventKey.hashCode());
+    SplittableRandom[] randoms = new SplittableRandom[BATCHES];
+    for (int i = 0; i < BATCHES; i++) {
+      randoms[i] = root.split();
+    }
+
+    int[] rankCounts = IntStream.range(0, BATCHES)
+                                .parallel()
+                                .mapToObj(batch -> simulateBatch(simulation, randoms[batch],
+                                                                 TRIALS / BATCHES))
+                                .reduce(RankingProjections::merge)
+                                .orElseThrow();
+
+    List<RankingProjection> results = summarize(eventKey, teamIndices, rankCounts);
+    byte[] json = jsonEncodeBytes(results);
+    EncodedPayload previousPayload = previous == null ? null : previous.payload();
+    EncodedPayload payload = previousPayload;
+    if (previousPayload == null || !Arrays.equals(previousPayload.json(), json)) {
+      payload = EncodedPayload.of(EncodedPayload.nextVersion(previousPayload), json);
+    }
+    projections.put(eventKey, new Projection(fingerprint, payload));
+
+    LOGGER.info("Projected rankings for {} teams over {} matches at event {} in {}ms",
+                teamIndices.size(), remaining.size(), eventKey,
+                System.currentTimeMillis() - start);
+    return payload != previousPayload;
+  }
+
+  @Override
+  public void removeStale(Collection<? extends String> activeKeys) {
+    projections.keySet()
+               .retainAll(activeKeys);
+  }
+
+  public EncodedPayload get(String eventKey) {
+    Projection projection = projections.get(eventKey);
+    return projection == null ? null : projection.payload();
+  }
+
+  private Simulation prepare(String eventKey, RankingRules rules,
+                             Map<Integer, Integer> teamIndices, List<MatchInfo> remaining,
+                             Map<Integer, RankingModel> models) {
+    int teamCount = teamIndices.size();
+    int bonusCount = rules.bonuses()
+                          .size();
+
+    // Teams that haven't played are assumed to achieve bonuses like the average team
+    double[] averageRates = new double[bonusCount];
+    int rated = 0;
+    for (RankingModel model : models.values()) {
+      if (model.bonusRates() != null) {
+        for (int b = 0; b < bonusCount; b++) {
+          averageRates[b] += model.bonusRates()[b];
+        }
+        rated++;
+      }
+    }
+    for (int b = 0; b < bonusCount; b++) {
+      averageRates[b] = rated == 0 ? 0 : averageRates[b] / rated;
+    }
+
+    Cache.Value<?, RankingsCache.Rankings> rankings = rankingsCache.get(eventKey);
+    int[] baseRankingPoints = new int[teamCount];
+    int[] totalMatches = new int[teamCount];
+    double[][] teamRates = new double[teamCount][];
+    for (Map.Entry<Integer, Integer> entry : teamIndices.entrySet()) {
+      int index = entry.getValue();
+      RankingModel model = models.get(entry.getKey());
+      if (model != null) {
+        baseRankingPoints[index] = model.rankingPoints();
+        totalMatches[index] = model.matchesPlayed();
+      } else if (rankings != null) {
+        // Not analyzed yet, so only wins and ties are known
+        RankingsCache.Team team = rankings.value()
+                                          .get(entry.getKey());
+        WinLossRecord wlt = team == null ? null : team.getWinLossRecord();
+        if (wlt != null) {
+          baseRankingPoints[index] =
+              rules.winPoints() * wlt.wins() + rules.tiePoints() * wlt.ties();
+          totalMatches[index] = wlt.wins() + wlt.losses() + wlt.ties();
+        }
+      }
+      teamRates[index] = model == null || model.bonusRates() == null ? averageRates
+          : model.bonusRates();
+    }
+
+    Map<String, MatchPrediction> predictions = matchPredictions.getPredictions(eventKey);
+    int matchCount = remaining.size();
+    int[] allianceOffsets = new int[2 * matchCount + 1];
+    List<Integer> allianceTeams = new ArrayList<>();
+    double[] redWinProbabilities = new double[matchCount];
+    double[] bonusProbabilities = new double[2 * matchCount * bonusCount];
+    for (int i = 0; i < matchCount; i++) {
+      MatchInfo match = remaining.get(i);
+      MatchPrediction prediction = predictions.get(match.getKey());
+      redWinProbabilities[i] = prediction == null ? 0.5 : prediction.redWinProbability();
+
+      int[][] alliances = { match.getRed(), match.getBlue() };
+      for (int side = 0; side < 2; side++) {
+        int alliance = 2 * i + side;
+        for (int team : alliances[side]) {
+          int index = teamIndices.get(team);
+          allianceTeams.add(index);
+          totalMatches[index]++;
+
+          // An alliance achieves a bonus about as often as its members have
+          for (int b = 0; b < bonusCount; b++) {
+            bonusProbabilities[alliance * bonusCount + b] +=
+                teamRates[index][b] / alliances[side].length;
+          }
+        }
+        allianceOffsets[alliance + 1] = allianceTeams.size();
+      }
+    }
+
+    return new Simulation(teamCount, baseRankingPoints, totalMatches, allianceOffsets,
+                          allianceTeams.stream()
+                                       .mapToInt(Integer::intValue)
+                                       .toArray(),
+                          redWinProbabilities, bonusProbabilities, bonusCount, rules);
+  }
+
+  // Preparing is cheap next to simulating, so compare what trials would read
+  private static long fingerprint(Simulation simulation) {
+    long fingerprint = simulation.teamCount();
+    fingerprint = 31 * fingerprint + Arrays.hashCode(simulation.baseRankingPoints());
+    fingerprint = 31 * fingerprint + Arrays.hashCode(simulation.totalMatches());
+    fingerprint = 31 * fingerprint + Arrays.hashCode(simulation.allianceOffsets());
+    fingerprint = 31 * fingerprint + Arrays.hashCode(simulation.allianceTeams());
+    fingerprint = 31 * fingerprint + Arrays.hashCode(simulation.redWinProbabilities());
+    fingerprint = 31 * fingerprint + Arrays.hashCode(simulation.bonusProbabilities());
+    return fingerprint;
+  }
+
+  /**
+   * @return occurrences of each rank, indexed by {@code team * teamCount + rank}
+   */
+  private static int[] simulateBatch(Simulation simulation, SplittableRandom random,
+                                     int trials) {
+    int teamCount = simulation.teamCount();
+    int matchCount = simulation.redWinProbabilities().length;
+    int bonusCount = simulation.bonusCount();
+    int[] offsets = simulation.allianceOffsets();
+    int[] members = simulation.allianceTeams();
+
+    int[] rankingPoints = new int[teamCount];
+    long[] keys = new long[teamCount];
+    int[] rankCounts = new int[teamCount * teamCount];
+
+    for (int trial = 0; trial < trials; trial++) {
+      System.arraycopy(simulation.baseRankingPoints(), 0, rankingPoints, 0, teamCount);
+
+      for (int i = 0; i < matchCount; i++) {
+        int winner = random.nextDouble() < simulation.redWinProbabilities()[i] ? 2 * i
+            : 2 * i + 1;
+        award(rankingPoints, members, offsets, winner, simulation.rules()
+                                                                 .winPoints());
+
+        for (int alliance = 2 * i; alliance <= 2 * i + 1; alliance++) {
+          for (int b = 0; b < bonusCount; b++) {
+            if (random.nextDouble() < simulation.bonusProbabilities()[alliance * bonusCount + b]) {
+              award(rankingPoints, members, offsets, alliance, 1);
+            }
+          }
+        }
+      }
+
+      for (int team = 0; team < teamCount; team++) {
+        keys[team] = sortKey(rankingPoints[team], simulation.totalMatches()[team],
+                             random.nextInt(1 << TIEBREAK_BITS), team);
+      }
+      Arrays.sort(keys);
+
+      // Ascending order, so the last key is first place
+      for (int position = 0; position < teamCount; position++) {
+        int team = teamOf(keys[position]);
+        int rank = teamCount - 1 - position;
+        rankCounts[team * teamCount + rank]++;
+      }
+    }
+    return rankCounts;
+  }
+
+  /**
+   * Packs a team's average ranking points, a tiebreak below
+   * {@code 1 << TIEBREAK_BITS} and its index below {@code 1 << INDEX_BITS},
+   * so sorting keys orders teams by average and then by tiebreak.
+   */
+  static long sortKey(int rankingPoints, int matches, int tiebreak, int team) {
+    long average = matches == 0 ? 0 : rankingPoints * SCORE_SCALE / matches;
+    return (average << (TIEBREAK_BITS + INDEX_BITS)) | ((long) tiebreak << INDEX_BITS) | team;
+  }
+
+  static int teamOf(long sortKey) {
+    return (int) (sortKey & ((1 << INDEX_BITS) - 1));
+  }
+
+  private static void award(int[] rankingPoints, int[] members, int[] offsets, int alliance,
+                            int points) {
+    for (int i = offsets[alliance]; i < offsets[alliance + 1]; i++) {
+      rankingPoints[members[i]] += points;
+    }
+  }
+
+  private static int[] merge(int[] counts1, int[] counts2) {
+    for (int i = 0; i < counts1.length; i++) {
+      counts1[i] += counts2[i];
+    }
+    return counts1;
+  }
+
+  private List<RankingProjection> summarize(String eventKey, Map<Integer, Integer> teamIndices,
+                                            int[] rankCounts) {
+    Cache.Value<?, RankingsCache.Rankings> rankings = rankingsCache.get(eventKey);
+    int teamCount = teamIndices.size();
+    int trials = TRIALS / BATCHES * BATCHES;
+
+    List<RankingProjection> results = new ArrayList<>(teamCount);
+    for (Map.Entry<Integer, Integer> entry : teamIndices.entrySet()) {
+      int index = entry.getValue();
+      double[] probabilities = new double[teamCount];
+      double meanRank = 0;
+      for (int rank = 0; rank < teamCount; rank++) {
+        int count = rankCounts[index * teamCount + rank];
+        probabilities[rank] = (double) Math.round(10_000.0 * count / trials) / 10_000;
+        meanRank += (rank + 1.0) * count / trials;
+      }
+
+      RankingsCache.Team team = rankings == null ? null
+          : rankings.value()
+                    .get(entry.getKey());
+      results.add(new RankingProjection(entry.getKey(), team == null ? 0 : team.getRank(),
+                                        (double) Math.round(meanRank * 100) / 100,
+                                        probabilities));
+    }
+    results.sort(Comparator.comparingDouble(RankingProjection::meanRank));
+    return results;
+  }
+
+  private static void addTeams(Map<Integer, Integer> teamIndices, int[] alliance) {
+    for (int team : alliance) {
+      teamIndices.putIfAbsent(team, teamIndices.size());
+    }
+  }
+}
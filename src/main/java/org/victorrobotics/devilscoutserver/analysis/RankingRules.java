@@ -0,0 +1,11 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import java.util.List;
+
+/**
+ * How qualification matches award ranking points in a season. Each bonus is
+ * worth one ranking point to every team on the alliance that achieves it.
+ */
+public record RankingRules(int winPoints,
+                           int tiePoints,
+                           List<String> bonuses) {}
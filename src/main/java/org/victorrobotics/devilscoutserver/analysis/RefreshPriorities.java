@@ -0,0 +1,140 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import org.victorrobotics.devilscoutserver.cache.Cache;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchInfo;
+import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchSchedule;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranks analysis refreshes by how soon someone will look at the result. Teams
+ * playing in the next matches of a team that follows the event come first,
+ * then teams someone viewed recently, then everyone else.
+ * <p>
+ * Followers are the teams of users who requested the event's analysis
+ * recently, so no separate subscription is needed.
+ */
+public class RefreshPriorities {
+  public static final int UPCOMING = 0;
+  public static final int VIEWED   = 1;
+  public static final int DEFAULT  = 2;
+
+  private record Relevant(long computedAt,
+                          Set<Integer> teams) {}
+
+  // How many of a follower's unplayed matches are worth preparing for
+  private static final int UPCOMING_MATCHES = 2;
+
+  private static final long FOLLOW_WINDOW    = TimeUnit.HOURS.toMillis(1);
+  private static final long VIEW_WINDOW      = TimeUnit.MINUTES.toMillis(15);
+  private static final long RELEVANT_MAX_AGE = TimeUnit.SECONDS.toMillis(30);
+
+  private final MatchScheduleCache matchScheduleCache;
+
+  private final ConcurrentMap<String, Map<Integer, Long>> followers;
+  private final ConcurrentMap<String, Map<Integer, Long>> views;
+  private final ConcurrentMap<String, Relevant>           relevant;
+
+  public RefreshPriorities(MatchScheduleCache matchScheduleCache) {
+    this.matchScheduleCache = matchScheduleCache;
+    this.followers = new ConcurrentHashMap<>();
+    this.views = new ConcurrentHashMap<>();
+    this.relevant = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Records that a user on {@code viewerTeam} requested analysis for the
+   * event, optionally for a single team (0 for the whole event).
+   */
+  public void recordView(String eventKey, int viewerTeam, int team) {
+    long now = System.currentTimeMillis();
+    if (followers.computeIfAbsent(eventKey, k -> new ConcurrentHashMap<>())
+                 .put(viewerTeam, now) == null) {
+      // New follower, their matches aren't in the cached set yet
+      relevant.remove(eventKey);
+    }
+    if (team != 0) {
+      views.computeIfAbsent(eventKey, k -> new ConcurrentHashMap<>())
+           .put(team, now);
+    }
+  }
+
+  /**
+   * @return {@link #UPCOMING}, {@link #VIEWED} or {@link #DEFAULT}
+   */
+  public int priority(String eventKey, int team) {
+    if (upcomingTeams(eventKey).contains(team)) return UPCOMING;
+
+    Map<Integer, Long> eventViews = views.get(eventKey);
+    Long viewed = eventViews == null ? null : eventViews.get(team);
+    if (viewed != null && System.currentTimeMillis() - viewed <= VIEW_WINDOW) return VIEWED;
+
+    return DEFAULT;
+  }
+
+  public void removeStale(Collection<? extends String> activeEvents) {
+    followers.keySet()
+             .retainAll(activeEvents);
+    views.keySet()
+         .retainAll(activeEvents);
+    relevant.keySet()
+            .retainAll(activeEvents);
+  }
+
+  private Set<Integer> upcomingTeams(String eventKey) {
+    long now = System.currentTimeMillis();
+    Relevant current = relevant.get(eventKey);
+    if (current == null || now - current.computedAt() > RELEVANT_MAX_AGE) {
+      current = new Relevant(now, computeUpcomingTeams(eventKey, now));
+      relevant.put(eventKey, current);
+    }
+    return current.teams();
+  }
+
+  private Set<Integer> computeUpcomingTeams(String eventKey, long now) {
+    Map<Integer, Long> eventFollowers = followers.get(eventKey);
+    Cache.Value<?, MatchSchedule> schedule = matchScheduleCache.get(eventKey);
+    if (eventFollowers == null || schedule == null) return Set.of();
+
+    eventFollowers.values()
+                  .removeIf(lastSeen -> now - lastSeen > FOLLOW_WINDOW);
+
+    Set<Integer> teams = new HashSet<>();
+    for (int follower : eventFollowers.keySet()) {
+      int remaining = UPCOMING_MATCHES;
+      // Schedule values are in match order
+      for (MatchInfo match : schedule.value()
+                                     .values()) {
+        if (match.isCompleted() || !plays(match, follower)) continue;
+
+        addAll(teams, match.getRed());
+        addAll(teams, match.getBlue());
+        if (--remaining == 0) break;
+      }
+    }
+    return teams;
+  }
+
+  private static boolean plays(MatchInfo match, int team) {
+    for (int red : match.getRed()) {
+      if (red == team) return true;
+    }
+    for (int blue : match.getBlue()) {
+      if (blue == team) return true;
+    }
+    return false;
+  }
+
+  private static void addAll(Set<Integer> teams, int[] alliance) {
+    for (int team : alliance) {
+      teams.add(team);
+    }
+  }
+}
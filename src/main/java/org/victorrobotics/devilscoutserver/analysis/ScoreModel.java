@@ -0,0 +1,8 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+/**
+ * Distribution of the points one team contributes to its alliance in a
+ * match, approximated as a normal distribution.
+ */
+public record ScoreModel(double mean,
+                         double stddev) {}
@@ -0,0 +1,139 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How far each scout's match entries tend to be from the official score
+ * breakdowns, kept as running sums in primitive arrays indexed by a slot per
+ * user. A match's errors are added when it is reconciled, and swapped out if
+ * it is reconciled again, so nothing is ever rescanned.
+ * <p>
+ * Weights compare a scout's mean squared error to that of every scout, shrunk
+ * towards the average for scouts with few checked matches.
+ */
+public class ScoutReliability {
+  private static final int INITIAL_CAPACITY = 64;
+
+  // Checked matches a new scout is assumed to have at the average error
+  private static final double PRIOR_MATCHES = 3;
+  private static final double MIN_WEIGHT    = 0.25;
+  private static final double MAX_WEIGHT    = 2;
+
+  /**
+   * {@code bias} is the mean error, positive for overcounting. Errors are in
+   * the game's scoring units, such as notes.
+   */
+  public record Score(String userId,
+                      int matches,
+                      double bias,
+                      double rmsError,
+                      double weight) {}
+
+  // One match's errors, to take back out if it is reconciled again
+  private record Contribution(int[] slots,
+                              double[] errors) {}
+
+  private final Map<String, Integer>      slots;
+  private final Map<String, Contribution> matches;
+
+  private int[]    counts;
+  private double[] errorSums;
+  private double[] squaredSums;
+
+  private long   totalCount;
+  private double totalSquared;
+
+  public ScoutReliability() {
+    this.slots = new HashMap<>();
+    this.matches = new HashMap<>();
+    this.counts = new int[INITIAL_CAPACITY];
+    this.errorSums = new double[INITIAL_CAPACITY];
+    this.squaredSums = new double[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Replaces the errors recorded for a match.
+   *
+   * @param users the scout of each error, null if unknown
+   */
+  synchronized void update(String matchKey, List<String> users, double[] errors) {
+    Contribution previous = matches.remove(matchKey);
+    if (previous != null) {
+      for (int i = 0; i < previous.slots().length; i++) {
+        add(previous.slots()[i], previous.errors()[i], -1);
+      }
+    }
+
+    int[] matchSlots = new int[users.size()];
+    int count = 0;
+    double[] matchErrors = new double[users.size()];
+    for (int i = 0; i < users.size(); i++) {
+      if (users.get(i) == null) continue;
+
+      matchSlots[count] = slot(users.get(i));
+      matchErrors[count] = errors[i];
+      add(matchSlots[count], matchErrors[count], 1);
+      count++;
+    }
+    if (count != 0) {
+      matches.put(matchKey, new Contribution(Arrays.copyOf(matchSlots, count),
+                                             Arrays.copyOf(matchErrors, count)));
+    }
+  }
+
+  /**
+   * @return the weight of the user's entries relative to an average scout's,
+   *         or 1 if nothing is known about them yet
+   */
+  public synchronized double weight(String userId) {
+    Integer slot = slots.get(userId);
+    return slot == null ? 1 : weight(slot);
+  }
+
+  public synchronized Score score(String userId) {
+    Integer slot = slots.get(userId);
+    if (slot == null || counts[slot] == 0) return new Score(userId, 0, 0, 0, 1);
+
+    int count = counts[slot];
+    return new Score(userId, count, round(errorSums[slot] / count),
+                     round(Math.sqrt(squaredSums[slot] / count)), round(weight(slot)));
+  }
+
+  private double weight(int slot) {
+    if (totalCount == 0 || totalSquared <= 0) return 1;
+
+    double average = totalSquared / totalCount;
+    double shrunk = (squaredSums[slot] + PRIOR_MATCHES * average) / (counts[slot] + PRIOR_MATCHES);
+    return Math.clamp(average / shrunk, MIN_WEIGHT, MAX_WEIGHT);
+  }
+
+  private void add(int slot, double error, int sign) {
+    counts[slot] += sign;
+    errorSums[slot] += sign * error;
+    squaredSums[slot] += sign * error * error;
+    totalCount += sign;
+    totalSquared += sign * error * error;
+  }
+
+  private int slot(String userId) {
+    Integer slot = slots.get(userId);
+    if (slot != null) return slot;
+
+    int next = slots.size();
+    if (next == counts.length) {
+      int capacity = next * 2;
+      counts = Arrays.copyOf(counts, capacity);
+      errorSums = Arrays.copyOf(errorSums, capacity);
+      squaredSums = Arrays.copyOf(squaredSums, capacity);
+    }
+    slots.put(userId, next);
+    return next;
+  }
+
+  private static double round(double value) {
+    return (double) Math.round(value * 100) / 100;
+  }
+}
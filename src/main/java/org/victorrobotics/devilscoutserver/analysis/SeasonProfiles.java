@@ -0,0 +1,126 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import static org.victorrobotics.devilscoutserver.EncodingUtil.jsonEncodeBytes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Each team's aggregates merged across every event analyzed in a season, so a
+ * team arrives at its next event with what was already scouted on it.
+ * <p>
+ * Profiles refer to each event's live aggregates rather than copying them on
+ * every refresh. They are merged and encoded on the first read after a change,
+ * without rereading any entries, and are kept after their event is no longer
+ * active until the next season starts.
+ */
+final class SeasonProfiles {
+  private record ProfileKey(int year,
+                            int team) {}
+
+  /**
+   * @param lock guards the aggregates, which may be replaced
+   */
+  private record Source<A>(Object lock,
+                           Supplier<A> aggregates) {}
+
+  // Guarded by its own monitor, which is never held while taking a source's
+  private static final class Profile<A extends TeamAggregates, D> {
+    private final Analyzer<?, A, D>      analyzer;
+    private final Map<String, Source<A>> events; // sorted, so merges are reproducible
+
+    private EncodedPayload payload;
+    private boolean        changed;
+
+    Profile(Analyzer<?, A, D> analyzer) {
+      this.analyzer = analyzer;
+      this.events = new TreeMap<>();
+    }
+
+    synchronized void update(String eventKey, Source<A> source) {
+      events.put(eventKey, source);
+      changed = true;
+    }
+
+    EncodedPayload payload() {
+      List<Source<A>> sources;
+      EncodedPayload previous;
+      synchronized (this) {
+        if (!changed) return payload;
+
+        changed = false;
+        sources = List.copyOf(events.values());
+        previous = payload;
+      }
+
+      A merged = analyzer.createAggregates();
+      for (Source<A> source : sources) {
+        synchronized (source.lock()) {
+          A aggregates = source.aggregates()
+                               .get();
+          if (aggregates != null) {
+            analyzer.mergeInto(merged, aggregates);
+          }
+        }
+      }
+
+      D data = analyzer.computeSeasonData(merged);
+      EncodedPayload encoded = null;
+      if (data != null) {
+        byte[] json = jsonEncodeBytes(analyzer.generateStatistics(data));
+        encoded = previous != null && Arrays.equals(previous.json(), json) ? previous
+            : EncodedPayload.of(EncodedPayload.nextVersion(previous), json);
+      }
+
+      synchronized (this) {
+        // Unless a concurrent read already stored a newer one
+        if (payload == previous) {
+          payload = encoded;
+        }
+        return payload;
+      }
+    }
+  }
+
+  private final ConcurrentMap<ProfileKey, Profile<?, ?>> profiles;
+
+  private int latestYear;
+
+  SeasonProfiles() {
+    this.profiles = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Records that the team's aggregates at the event changed. Profiles from
+   * earlier seasons are dropped once a later season's event is analyzed.
+   *
+   * @param lock held while reading the aggregates
+   * @param aggregates the team's current aggregates at the event, or null
+   */
+  <A extends TeamAggregates, D> void update(Analyzer<?, A, D> analyzer, int year,
+                                            String eventKey, int team, Object lock,
+                                            Supplier<A> aggregates) {
+    synchronized (this) {
+      if (year > latestYear) {
+        latestYear = year;
+        profiles.keySet()
+                .removeIf(key -> key.year() < year);
+      }
+    }
+
+    @SuppressWarnings("unchecked") // one analyzer per year
+    Profile<A, D> profile = (Profile<A, D>) profiles.computeIfAbsent(new ProfileKey(year, team),
+                                                                     k -> new Profile<>(analyzer));
+    profile.update(eventKey, new Source<>(lock, aggregates));
+  }
+
+  EncodedPayload get(int year, int team) {
+    Profile<?, ?> profile = profiles.get(new ProfileKey(year, team));
+    return profile == null ? null : profile.payload();
+  }
+}
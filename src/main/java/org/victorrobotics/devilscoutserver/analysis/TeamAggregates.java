@@ -0,0 +1,44 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Running aggregates over one team's scouting entries at an event. Analyzers
+ * subclass this with their own metrics; access is synchronized externally.
+ */
+public abstract class TeamAggregates {
+  // Rows of the event's current table, by source
+  private final Map<AnalysisInput, BitSet> countedRows;
+
+  private int mergedCount;
+
+  protected TeamAggregates() {
+    this.countedRows = new EnumMap<>(AnalysisInput.class);
+  }
+
+  /**
+   * @return false if the entry was already counted
+   */
+  boolean markCounted(AnalysisInput source, int row) {
+    BitSet rows = countedRows.computeIfAbsent(source, k -> new BitSet());
+    if (rows.get(row)) return false;
+
+    rows.set(row);
+    return true;
+  }
+
+  // Merged aggregates span events, whose rows are numbered separately
+  void mergeCounted(TeamAggregates other) {
+    mergedCount += other.entryCount();
+  }
+
+  public int entryCount() {
+    int count = mergedCount;
+    for (BitSet rows : countedRows.values()) {
+      count += rows.cardinality();
+    }
+    return count;
+  }
+}
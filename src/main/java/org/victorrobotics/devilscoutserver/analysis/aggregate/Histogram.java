@@ -0,0 +1,128 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts occurrences of categorical values. Distinct values are kept sorted
+ * beside an array of their counts, so ties for the mode resolve to the
+ * smallest value and counting a value already seen doesn't allocate.
+ */
+public class Histogram<T extends Comparable<T>> {
+  private static final int INITIAL_CAPACITY = 4;
+
+  private Object[] keys;
+  private int[]    counts;
+  private int      size;
+  private int      total;
+
+  public Histogram() {
+    this.keys = new Object[INITIAL_CAPACITY];
+    this.counts = new int[INITIAL_CAPACITY];
+  }
+
+  public void add(T value) {
+    if (value == null) return;
+
+    add(value, 1);
+  }
+
+  public void remove(T value) {
+    if (value == null) return;
+
+    int index = indexOf(value);
+    if (index < 0) return;
+
+    if (--counts[index] == 0) {
+      System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+      System.arraycopy(counts, index + 1, counts, index, size - index - 1);
+      keys[--size] = null;
+    }
+    total--;
+  }
+
+  public void merge(Histogram<T> other) {
+    for (int i = 0; i < other.size; i++) {
+      add(other.key(i), other.counts[i]);
+    }
+  }
+
+  private void add(T value, int count) {
+    int index = indexOf(value);
+    if (index < 0) {
+      index = -index - 1;
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        counts = Arrays.copyOf(counts, size * 2);
+      }
+      System.arraycopy(keys, index, keys, index + 1, size - index);
+      System.arraycopy(counts, index, counts, index + 1, size - index);
+      keys[index] = value;
+      counts[index] = 0;
+      size++;
+    }
+    counts[index] += count;
+    total += count;
+  }
+
+  // Same contract as Arrays.binarySearch
+  private int indexOf(T value) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = key(middle).compareTo(value);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  @SuppressWarnings("unchecked") // only values of T are stored
+  private T key(int index) {
+    return (T) keys[index];
+  }
+
+  public T mode() {
+    T mode = null;
+    int maxCount = 0;
+    for (int i = 0; i < size; i++) {
+      if (counts[i] > maxCount) {
+        maxCount = counts[i];
+        mode = key(i);
+      }
+    }
+    return mode;
+  }
+
+  public int count(T value) {
+    int index = indexOf(value);
+    return index < 0 ? 0 : counts[index];
+  }
+
+  public int total() {
+    return total;
+  }
+
+  /**
+   * @return the share of all values equal to {@code value}, or null if empty
+   */
+  public Double fraction(T value) {
+    return total == 0 ? null : Double.valueOf((double) count(value) / total);
+  }
+
+  public Map<T, Integer> counts() {
+    Map<T, Integer> map = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(key(i), counts[i]);
+    }
+    return Collections.unmodifiableMap(map);
+  }
+}
@@ -0,0 +1,110 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import org.victorrobotics.devilscoutserver.database.EntryField;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Averages categorical counts across the entries for each match, rounding to
+ * whole numbers, then sums the per-match counts. Counts are kept in arrays
+ * indexed by ordinal.
+ */
+public class MatchCounts<E extends Enum<E>> {
+  private static final class MatchSum {
+    private final int[] sums;
+
+    private int entries;
+
+    MatchSum(int categories) {
+      sums = new int[categories];
+    }
+
+    int average(int category) {
+      return (int) Math.round((double) sums[category] / entries);
+    }
+  }
+
+  private final Class<E>              type;
+  private final Map<String, MatchSum> matches;
+  private final int[]                 totals;
+  private final boolean[]             seen;
+
+  public MatchCounts(Class<E> type) {
+    int categories = type.getEnumConstants().length;
+    this.type = type;
+    this.matches = new HashMap<>();
+    this.totals = new int[categories];
+    this.seen = new boolean[categories];
+  }
+
+  /**
+   * Adds one entry's counts of two categories. A count of
+   * {@link EntryField#MISSING} is skipped.
+   */
+  public void add(String matchKey, E key1, int count1, E key2, int count2) {
+    MatchSum match = matches.computeIfAbsent(matchKey, k -> new MatchSum(totals.length));
+    removeAverages(match);
+    match.entries++;
+    addCount(match, key1, count1);
+    addCount(match, key2, count2);
+    addAverages(match);
+  }
+
+  private void addCount(MatchSum match, E key, int count) {
+    if (count == EntryField.MISSING) return;
+
+    match.sums[key.ordinal()] += count;
+    seen[key.ordinal()] = true;
+  }
+
+  /**
+   * Adds another accumulator's entries, as if they had been added here.
+   */
+  public void merge(MatchCounts<E> other) {
+    for (Map.Entry<String, MatchSum> entry : other.matches.entrySet()) {
+      MatchSum match =
+          matches.computeIfAbsent(entry.getKey(), k -> new MatchSum(totals.length));
+      removeAverages(match);
+      match.entries += entry.getValue().entries;
+      for (int i = 0; i < totals.length; i++) {
+        match.sums[i] += entry.getValue().sums[i];
+      }
+      addAverages(match);
+    }
+    for (int i = 0; i < seen.length; i++) {
+      seen[i] |= other.seen[i];
+    }
+  }
+
+  // A category missing from the match averages to zero
+  private void removeAverages(MatchSum match) {
+    if (match.entries == 0) return;
+
+    for (int i = 0; i < totals.length; i++) {
+      totals[i] -= match.average(i);
+    }
+  }
+
+  private void addAverages(MatchSum match) {
+    for (int i = 0; i < totals.length; i++) {
+      totals[i] += match.average(i);
+    }
+  }
+
+  /**
+   * @return the summed counts of every category seen, in ordinal order
+   */
+  public Map<E, Integer> totals() {
+    E[] keys = type.getEnumConstants();
+    Map<E, Integer> map = new EnumMap<>(type);
+    for (int i = 0; i < keys.length; i++) {
+      if (seen[i]) {
+        map.put(keys[i], totals[i]);
+      }
+    }
+    return Collections.unmodifiableMap(map);
+  }
+}
@@ -0,0 +1,73 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Averages a number across the entries for each match, then aggregates the
+ * per-match averages. Adding an entry swaps one match's average in place.
+ * Entries can be weighted, which only matters for matches with several.
+ */
+public class MatchMeans {
+  private static final class MatchSum {
+    private double sum;
+    private double weight;
+
+    double mean() {
+      return sum / weight;
+    }
+  }
+
+  private final Map<String, MatchSum> matches;
+  private final RunningStats          stats;
+
+  public MatchMeans() {
+    this.matches = new HashMap<>();
+    this.stats = new RunningStats();
+  }
+
+  public void add(String matchKey, Number value) {
+    if (value != null) {
+      add(matchKey, value.doubleValue());
+    }
+  }
+
+  public void add(String matchKey, double value) {
+    add(matchKey, value, 1);
+  }
+
+  public void add(String matchKey, double value, double weight) {
+    MatchSum match = matches.computeIfAbsent(matchKey, k -> new MatchSum());
+    if (match.weight != 0) {
+      stats.remove(match.mean());
+    }
+
+    match.sum += value * weight;
+    match.weight += weight;
+    stats.add(match.mean());
+  }
+
+  /**
+   * Adds another accumulator's entries, as if they had been added here.
+   */
+  public void merge(MatchMeans other) {
+    for (Map.Entry<String, MatchSum> entry : other.matches.entrySet()) {
+      MatchSum match = matches.computeIfAbsent(entry.getKey(), k -> new MatchSum());
+      if (match.weight != 0) {
+        stats.remove(match.mean());
+      }
+
+      match.sum += entry.getValue().sum;
+      match.weight += entry.getValue().weight;
+      stats.add(match.mean());
+    }
+  }
+
+  public Double average() {
+    return stats.mean();
+  }
+
+  public RunningStats stats() {
+    return stats;
+  }
+}
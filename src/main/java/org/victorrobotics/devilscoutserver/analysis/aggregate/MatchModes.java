@@ -0,0 +1,43 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Takes the most common value among the entries for each match, then counts
+ * those per-match values.
+ */
+public class MatchModes<T extends Comparable<T>> {
+  private final Map<String, Histogram<T>> matches;
+  private final Histogram<T>              modes;
+
+  public MatchModes() {
+    this.matches = new HashMap<>();
+    this.modes = new Histogram<>();
+  }
+
+  public void add(String matchKey, T value) {
+    if (value == null) return;
+
+    Histogram<T> match = matches.computeIfAbsent(matchKey, k -> new Histogram<>());
+    modes.remove(match.mode());
+    match.add(value);
+    modes.add(match.mode());
+  }
+
+  /**
+   * Adds another accumulator's entries, as if they had been added here.
+   */
+  public void merge(MatchModes<T> other) {
+    for (Map.Entry<String, Histogram<T>> entry : other.matches.entrySet()) {
+      Histogram<T> match = matches.computeIfAbsent(entry.getKey(), k -> new Histogram<>());
+      modes.remove(match.mode());
+      match.merge(entry.getValue());
+      modes.add(match.mode());
+    }
+  }
+
+  public Histogram<T> modes() {
+    return modes;
+  }
+}
@@ -0,0 +1,82 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import org.victorrobotics.devilscoutserver.database.EntryField;
+import org.victorrobotics.devilscoutserver.store.EntryRow;
+
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * One metric of an analyzer: how to read a value from an entry, and which
+ * accumulator it feeds. The accumulator decides the per-match reduction
+ * (mean, mode, counts) and exposes the cross-match result. Means weight each
+ * entry by its scout's reliability, other reductions ignore the weight.
+ */
+@FunctionalInterface
+public interface Metric<A> {
+  void accept(A aggregates, String matchKey, EntryRow entry, double weight);
+
+  /**
+   * Averages an integer field per match.
+   */
+  static <A> Metric<A> mean(EntryField field, Function<A, MatchMeans> target) {
+    return mean(field::getInt, target);
+  }
+
+  /**
+   * Averages a derived integer per match. The extractor returns
+   * {@link EntryField#MISSING} to skip an entry.
+   */
+  static <A> Metric<A> mean(ToIntFunction<EntryRow> extractor, Function<A, MatchMeans> target) {
+    return (aggregates, matchKey, entry, weight) -> {
+      int value = extractor.applyAsInt(entry);
+      if (value != EntryField.MISSING) {
+        target.apply(aggregates)
+              .add(matchKey, value, weight);
+      }
+    };
+  }
+
+  /**
+   * Takes the most common decoded value of an integer field per match.
+   */
+  static <A, T extends Comparable<T>> Metric<A> mode(EntryField field, IntFunction<T> decoder,
+                                                     Function<A, MatchModes<T>> target) {
+    return (aggregates, matchKey, entry, weight) -> {
+      int value = field.getInt(entry);
+      if (value != EntryField.MISSING) {
+        target.apply(aggregates)
+              .add(matchKey, decoder.apply(value));
+      }
+    };
+  }
+
+  /**
+   * Takes the most common value of a boolean field per match.
+   */
+  static <A> Metric<A> flag(EntryField field, Function<A, MatchModes<Boolean>> target) {
+    return (aggregates, matchKey, entry, weight) -> {
+      int value = field.getBoolean(entry);
+      if (value != EntryField.MISSING) {
+        target.apply(aggregates)
+              .add(matchKey, value == EntryField.TRUE);
+      }
+    };
+  }
+
+  /**
+   * Counts decoded values of an integer field, ignoring matches. Used for pit
+   * entries, which aren't tied to a match.
+   */
+  static <A, T extends Comparable<T>> Metric<A> histogram(EntryField field, IntFunction<T> decoder,
+                                                          Function<A, Histogram<T>> target) {
+    return (aggregates, matchKey, entry, weight) -> {
+      int value = field.getInt(entry);
+      if (value != EntryField.MISSING) {
+        target.apply(aggregates)
+              .add(decoder.apply(value));
+      }
+    };
+  }
+}
@@ -0,0 +1,35 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import org.victorrobotics.devilscoutserver.store.EntryRow;
+
+import java.util.List;
+
+/**
+ * Every metric declared for one kind of entry. Each entry is visited once and
+ * handed to all metrics in declaration order, so adding a metric costs its
+ * accumulator update rather than another pass over the entries.
+ */
+public final class Metrics<A> {
+  private final Metric<A>[] metrics;
+
+  @SuppressWarnings("unchecked")
+  private Metrics(List<Metric<A>> metrics) {
+    this.metrics = metrics.toArray(Metric[]::new);
+  }
+
+  @SafeVarargs
+  public static <A> Metrics<A> of(Metric<A>... metrics) {
+    return new Metrics<>(List.of(metrics));
+  }
+
+  public void accept(A aggregates, EntryRow entry) {
+    accept(aggregates, entry, 1);
+  }
+
+  public void accept(A aggregates, EntryRow entry, double weight) {
+    String matchKey = entry.matchKey();
+    for (Metric<A> metric : metrics) {
+      metric.accept(aggregates, matchKey, entry, weight);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import org.victorrobotics.devilscoutserver.analysis.data.NumberSummary;
+
+import java.util.Arrays;
+
+/**
+ * Count, sum and sum of squares of a multiset of numbers, supporting removal.
+ * Values are also kept in a sorted array so the extremes survive removal.
+ */
+public class RunningStats {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private double[] values;
+  private int      count;
+  private double   sum;
+  private double   sumSquared;
+
+  public RunningStats() {
+    this.values = new double[INITIAL_CAPACITY];
+  }
+
+  public void add(double value) {
+    if (count == values.length) {
+      values = Arrays.copyOf(values, count * 2);
+    }
+
+    int index = Arrays.binarySearch(values, 0, count, value);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    System.arraycopy(values, index, values, index + 1, count - index);
+    values[index] = value;
+
+    count++;
+    sum += value;
+    sumSquared += value * value;
+  }
+
+  public void remove(double value) {
+    int index = Arrays.binarySearch(values, 0, count, value);
+    if (index < 0) return;
+
+    System.arraycopy(values, index + 1, values, index, count - index - 1);
+    count--;
+    sum -= value;
+    sumSquared -= value * value;
+  }
+
+  public int count() {
+    return count;
+  }
+
+  public Double mean() {
+    return count == 0 ? null : Double.valueOf(sum / count);
+  }
+
+  public NumberSummary summary() {
+    if (count == 0) {
+      return NumberSummary.NO_DATA;
+    }
+
+    double mean = sum / count;
+    double stddev = Math.sqrt(Math.abs(sumSquared - (sum * sum / count)) / count);
+    return new NumberSummary(count, values[0], values[count - 1], mean, stddev);
+  }
+}
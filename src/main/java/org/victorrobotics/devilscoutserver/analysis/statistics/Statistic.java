@@ -1,12 +1,35 @@
 package org.victorrobotics.devilscoutserver.analysis.statistics;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 @SuppressWarnings("java:S1694") // non-abstract
 public abstract class Statistic {
   public final StatisticType type;
   public final String        name;
 
+  private Integer rank;
+  private Double  percentile;
+
   protected Statistic(StatisticType type, String name) {
     this.type = type;
     this.name = name;
   }
+
+  /**
+   * Places this statistic among the other teams at the event.
+   */
+  public void setRank(int rank, double percentile) {
+    this.rank = rank;
+    this.percentile = percentile;
+  }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Integer getRank() {
+    return rank;
+  }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Double getPercentile() {
+    return percentile;
+  }
 }
@@ -197,12 +197,14 @@ public abstract class Cache<K, D, V extends Cacheable<D>> implements Map<K, Cach
       lastModified = System.currentTimeMillis();
     }
 
-    public void update(D data) {
+    public boolean update(D data) {
       if (val.update(data)) {
         onModification.run();
         lastModified = System.currentTimeMillis();
         jsonCache = null;
+        return true;
       }
+      return false;
     }
 
     public V value() {
@@ -1,11 +1,30 @@
 package org.victorrobotics.devilscoutserver.controller;
 
+import org.victorrobotics.devilscoutserver.analysis.AlliancePicker;
+import org.victorrobotics.devilscoutserver.analysis.EncodedPayload;
+import org.victorrobotics.devilscoutserver.analysis.MatchPrediction;
+import org.victorrobotics.devilscoutserver.analysis.PickRecommendation;
+import org.victorrobotics.devilscoutserver.analysis.RankingProjection;
+import org.victorrobotics.devilscoutserver.analysis.ScoutReliability;
+import org.victorrobotics.devilscoutserver.analysis.statistics.StatisticsPage;
+import org.victorrobotics.devilscoutserver.database.User;
 import org.victorrobotics.devilscoutserver.session.Session;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
+import io.javalin.http.NotFoundResponse;
 
 public final class AnalysisController extends Controller {
-  private static final String EVENT_KEY_PATH_PARAM = "eventKey";
+  private static final String EVENT_KEY_PATH_PARAM   = "eventKey";
+  private static final String TEAM_NUMBER_PATH_PARAM = "teamNum";
 
   private AnalysisController() {}
 
@@ -14,6 +33,8 @@ public final class AnalysisController extends Controller {
    * <p>
    * Success: 200 {@link TeamStatistics}
    * <p>
+   * Cached: 304 NotModified ({@code If-None-Match})
+   * <p>
    * Errors:
    * <ul>
    * <li>400 BadRequest</li>
@@ -30,10 +51,253 @@ public final class AnalysisController extends Controller {
     }
 
     verifyAnalysisAccess(eventKey, session);
-    ctx.json(analysisCache().getStatistics(eventKey));
+    analysisCache().recordView(eventKey, session.getTeam(), 0);
+
+    EncodedPayload payload = analysisCache().getEventPayload(eventKey);
+    if (payload == null) {
+      ctx.json(Map.of());
+      return;
+    }
+
+    checkIfNoneMatch(ctx, payload.version());
+    setResponseEtag(ctx, payload.version());
+    writePayload(ctx, payload);
+  }
+
+  /**
+   * GET /analysis/{eventKey}/teams/{teamNum}
+   * <p>
+   * Success: 200 {@link StatisticsPage}[]
+   * <p>
+   * Cached: 304 NotModified ({@code If-None-Match})
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>400 BadRequest</li>
+   * <li>401 Unauthorized</li>
+   * <li>404 NotFound</li>
+   * </ul>
+   */
+  public static void team(Context ctx) {
+    Session session = getValidSession(ctx);
+
+    String eventKey = ctx.pathParam(EVENT_KEY_PATH_PARAM);
+    if (!eventsCache().containsKey(eventKey)) {
+      throw eventNotFound(eventKey);
+    }
+
+    verifyAnalysisAccess(eventKey, session);
+
+    int teamNum = ctx.pathParamAsClass(TEAM_NUMBER_PATH_PARAM, Integer.class)
+                     .get();
+    analysisCache().recordView(eventKey, session.getTeam(), teamNum);
+
+    EncodedPayload payload = analysisCache().getTeamPayload(eventKey, teamNum);
+    if (payload == null) {
+      throw teamNotFound(teamNum);
+    }
+
+    checkIfNoneMatch(ctx, payload.version());
+    setResponseEtag(ctx, payload.version());
+    writePayload(ctx, payload);
+  }
+
+  /**
+   * GET /analysis/{eventKey}/teams/{teamNum}/season
+   * <p>
+   * Success: 200 {@link StatisticsPage}[]
+   * <p>
+   * Cached: 304 NotModified ({@code If-None-Match})
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>400 BadRequest</li>
+   * <li>401 Unauthorized</li>
+   * <li>404 NotFound</li>
+   * </ul>
+   */
+  public static void season(Context ctx) {
+    Session session = getValidSession(ctx);
+
+    String eventKey = ctx.pathParam(EVENT_KEY_PATH_PARAM);
+    if (!eventsCache().containsKey(eventKey)) {
+      throw eventNotFound(eventKey);
+    }
+
+    verifyAnalysisAccess(eventKey, session);
+
+    int teamNum = ctx.pathParamAsClass(TEAM_NUMBER_PATH_PARAM, Integer.class)
+                     .get();
+    EncodedPayload payload = analysisCache().getSeasonPayload(eventKey, teamNum);
+    if (payload == null) {
+      throw teamNotFound(teamNum);
+    }
+
+    checkIfNoneMatch(ctx, payload.version());
+    setResponseEtag(ctx, payload.version());
+    writePayload(ctx, payload);
+  }
+
+  /**
+   * GET /analysis/{eventKey}/predictions
+   * <p>
+   * Success: 200 {@link MatchPrediction}[]
+   * <p>
+   * Cached: 304 NotModified ({@code If-None-Match})
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>400 BadRequest</li>
+   * <li>401 Unauthorized</li>
+   * <li>404 NotFound</li>
+   * </ul>
+   */
+  public static void predictions(Context ctx) {
+    Session session = getValidSession(ctx);
+
+    String eventKey = ctx.pathParam(EVENT_KEY_PATH_PARAM);
+    if (!eventsCache().containsKey(eventKey)) {
+      throw eventNotFound(eventKey);
+    }
+
+    verifyAnalysisAccess(eventKey, session);
+
+    EncodedPayload payload = matchPredictions().get(eventKey);
+    if (payload == null) {
+      ctx.json(List.of());
+      return;
+    }
+
+    checkIfNoneMatch(ctx, payload.version());
+    setResponseEtag(ctx, payload.version());
+    writePayload(ctx, payload);
+  }
+
+  /**
+   * GET /analysis/{eventKey}/rankings
+   * <p>
+   * Success: 200 {@link RankingProjection}[]
+   * <p>
+   * Cached: 304 NotModified ({@code If-None-Match})
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>400 BadRequest</li>
+   * <li>401 Unauthorized</li>
+   * <li>404 NotFound</li>
+   * </ul>
+   */
+  public static void rankings(Context ctx) {
+    Session session = getValidSession(ctx);
+
+    String eventKey = ctx.pathParam(EVENT_KEY_PATH_PARAM);
+    if (!eventsCache().containsKey(eventKey)) {
+      throw eventNotFound(eventKey);
+    }
+
+    verifyAnalysisAccess(eventKey, session);
+
+    EncodedPayload payload = rankingProjections().get(eventKey);
+    if (payload == null) {
+      ctx.json(List.of());
+      return;
+    }
+
+    checkIfNoneMatch(ctx, payload.version());
+    setResponseEtag(ctx, payload.version());
+    writePayload(ctx, payload);
+  }
+
+  /**
+   * POST /analysis/{eventKey}/picks
+   * <p>
+   * Request body: {@link PickBoard}
+   * <p>
+   * Success: 200 {@link PickRecommendation}
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>400 BadRequest</li>
+   * <li>401 Unauthorized</li>
+   * <li>404 NotFound</li>
+   * </ul>
+   */
+  public static void picks(Context ctx) {
+    Session session = getValidSession(ctx);
+
+    String eventKey = ctx.pathParam(EVENT_KEY_PATH_PARAM);
+    if (!eventsCache().containsKey(eventKey)) {
+      throw eventNotFound(eventKey);
+    }
+
+    verifyAnalysisAccess(eventKey, session);
+
+    PickBoard board = jsonDecode(ctx, PickBoard.class);
+    verifyPickBoard(board.alliances());
+
+    PickRecommendation recommendation = alliancePicker().recommend(eventKey, board.alliances());
+    if (recommendation == null) {
+      throw new NotFoundResponse("No analysis for event " + eventKey);
+    }
+    ctx.json(recommendation);
+  }
+
+  /**
+   * GET /analysis/{eventKey}/scouts
+   * <p>
+   * Success: 200 {@link ScoutReliability.Score}[]
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>400 BadRequest</li>
+   * <li>401 Unauthorized</li>
+   * <li>403 Forbidden</li>
+   * <li>404 NotFound</li>
+   * </ul>
+   */
+  public static void scouts(Context ctx) throws SQLException {
+    Session session = getValidSession(ctx);
+    session.verifyAdmin();
+
+    String eventKey = ctx.pathParam(EVENT_KEY_PATH_PARAM);
+    if (!eventsCache().containsKey(eventKey)) {
+      throw eventNotFound(eventKey);
+    }
+
+    List<String> userIds = new ArrayList<>();
+    for (User user : userDB().usersOnTeam(session.getTeam())) {
+      userIds.add(user.id());
+    }
+    ctx.json(analysisCache().getScoutScores(eventKey, userIds));
+  }
+
+  private static void verifyPickBoard(int[][] alliances) {
+    if (alliances.length == 0 || alliances.length > AlliancePicker.MAX_ALLIANCES) {
+      throw new BadRequestResponse("Expected 1-" + AlliancePicker.MAX_ALLIANCES + " alliances");
+    }
+
+    Set<Integer> teams = new HashSet<>();
+    for (int[] alliance : alliances) {
+      if (alliance == null || alliance.length == 0
+          || alliance.length > AlliancePicker.ALLIANCE_SIZE) {
+        throw new BadRequestResponse("Expected 1-" + AlliancePicker.ALLIANCE_SIZE
+            + " teams per alliance");
+      }
+      for (int team : alliance) {
+        if (!teams.add(team)) {
+          throw new BadRequestResponse("Team " + team + " is on multiple alliances");
+        }
+      }
+    }
   }
 
   private static void verifyAnalysisAccess(String eventKey, Session session) {
     // TODO: verify team is permitted to access event analysis
   }
+
+  /**
+   * Teams on each alliance in seed order, captain first.
+   */
+  @SuppressWarnings("java:S6218") // override equals for array content
+  public record PickBoard(@JsonProperty(required = true) int[][] alliances) {}
 }
@@ -1,9 +1,14 @@
 package org.victorrobotics.devilscoutserver.controller;
 
+import org.victorrobotics.devilscoutserver.analysis.AlliancePicker;
 import org.victorrobotics.devilscoutserver.analysis.AnalysisCache;
+import org.victorrobotics.devilscoutserver.analysis.EncodedPayload;
+import org.victorrobotics.devilscoutserver.analysis.MatchPredictions;
+import org.victorrobotics.devilscoutserver.analysis.RankingProjections;
 import org.victorrobotics.devilscoutserver.database.EntryDatabase;
 import org.victorrobotics.devilscoutserver.database.TeamDatabase;
 import org.victorrobotics.devilscoutserver.database.UserDatabase;
+import org.victorrobotics.devilscoutserver.pipeline.RefreshPipeline;
 import org.victorrobotics.devilscoutserver.questions.Questions;
 import org.victorrobotics.devilscoutserver.session.Session;
 import org.victorrobotics.devilscoutserver.session.SessionManager;
@@ -17,6 +22,7 @@ import java.util.Map;
 
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.ConflictResponse;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
 import io.javalin.http.ForbiddenResponse;
 import io.javalin.http.HttpResponseException;
@@ -26,7 +32,7 @@ import io.javalin.http.UnauthorizedResponse;
 
 public sealed class Controller
     permits EventController, QuestionController, SessionController, SubmissionController,
-    TeamController, UserController, AnalysisController {
+    TeamController, UserController, AnalysisController, StatusController {
   public static final String SESSION_HEADER = "X-DS-SESSION-KEY";
 
   protected static final String HASH_ALGORITHM   = "SHA-256";
@@ -51,7 +57,12 @@ public sealed class Controller
   private static EntryDatabase PIT_ENTRIES;
   private static EntryDatabase DRIVE_TEAM_ENTRIES;
 
-  private static AnalysisCache ANALYSIS_CACHE;
+  private static AnalysisCache      ANALYSIS_CACHE;
+  private static MatchPredictions   MATCH_PREDICTIONS;
+  private static RankingProjections RANKING_PROJECTIONS;
+  private static AlliancePicker     ALLIANCE_PICKER;
+
+  private static RefreshPipeline REFRESH_PIPELINE;
 
   protected Controller() {}
 
@@ -103,6 +114,22 @@ public sealed class Controller
     ANALYSIS_CACHE = analysisCache;
   }
 
+  public static void setMatchPredictions(MatchPredictions matchPredictions) {
+    MATCH_PREDICTIONS = matchPredictions;
+  }
+
+  public static void setRankingProjections(RankingProjections rankingProjections) {
+    RANKING_PROJECTIONS = rankingProjections;
+  }
+
+  public static void setAlliancePicker(AlliancePicker alliancePicker) {
+    ALLIANCE_PICKER = alliancePicker;
+  }
+
+  public static void setRefreshPipeline(RefreshPipeline refreshPipeline) {
+    REFRESH_PIPELINE = refreshPipeline;
+  }
+
   @SuppressWarnings("java:S2384") // copy map
   public static SessionManager sessions() {
     return SESSIONS;
@@ -154,6 +181,22 @@ public sealed class Controller
     return ANALYSIS_CACHE;
   }
 
+  public static MatchPredictions matchPredictions() {
+    return MATCH_PREDICTIONS;
+  }
+
+  public static RankingProjections rankingProjections() {
+    return RANKING_PROJECTIONS;
+  }
+
+  public static AlliancePicker alliancePicker() {
+    return ALLIANCE_PICKER;
+  }
+
+  public static RefreshPipeline refreshPipeline() {
+    return REFRESH_PIPELINE;
+  }
+
   @SuppressWarnings({ "java:S2221", "unchecked" }) // catch generic exception
   protected static <I, T> T jsonDecode(Context ctx, Class<I> clazz) {
     try {
@@ -203,6 +246,59 @@ public sealed class Controller
     ctx.header("etag", Long.toString(timestamp));
   }
 
+  protected static void writePayload(Context ctx, EncodedPayload payload) {
+    ctx.contentType(ContentType.APPLICATION_JSON);
+    // The body depends on accept-encoding, so caches must not mix them up
+    ctx.header("vary", "accept-encoding");
+
+    // Already compressed once per version, Javalin mustn't compress it again
+    ctx.disableCompression();
+
+    if (acceptsGzip(ctx.header("accept-encoding"))) {
+      ctx.header("content-encoding", "gzip");
+      ctx.result(payload.gzipped());
+    } else {
+      ctx.result(payload.json());
+    }
+  }
+
+  /**
+   * @return whether the accept-encoding header allows gzip, either by name or
+   *         by wildcard, with a nonzero q-value
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) return false;
+
+    boolean wildcard = false;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].strip();
+      if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+        return qValue(parts) > 0;
+      }
+      if (name.equals("*")) {
+        wildcard = qValue(parts) > 0;
+      }
+    }
+    return wildcard;
+  }
+
+  // Defaults to 1 if absent, and to 0 if unparseable
+  private static double qValue(String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].strip();
+      if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+        try {
+          return Double.parseDouble(parameter.substring(2)
+                                             .strip());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
   protected static HttpResponseException eventNotFound(String eventKey) {
     return new NotFoundResponse("Event " + eventKey + " not found");
   }
@@ -0,0 +1,40 @@
+package org.victorrobotics.devilscoutserver.controller;
+
+import org.victorrobotics.devilscoutserver.analysis.AnalysisCache;
+import org.victorrobotics.devilscoutserver.pipeline.RefreshPipeline.StageTimings;
+
+import io.javalin.http.Context;
+
+public final class StatusController extends Controller {
+  private StatusController() {}
+
+  /**
+   * GET /status/pipeline
+   * <p>
+   * Success: 200 {@link StageTimings}[]
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>401 Unauthorized</li>
+   * </ul>
+   */
+  public static void pipeline(Context ctx) {
+    getValidSession(ctx);
+    ctx.json(refreshPipeline().getTimings());
+  }
+
+  /**
+   * GET /status/analysis
+   * <p>
+   * Success: 200 {@link AnalysisCache.Status}
+   * <p>
+   * Errors:
+   * <ul>
+   * <li>401 Unauthorized</li>
+   * </ul>
+   */
+  public static void analysis(Context ctx) {
+    getValidSession(ctx);
+    ctx.json(analysisCache().getStatus());
+  }
+}
@@ -3,17 +3,28 @@ package org.victorrobotics.devilscoutserver.controller;
 import static org.victorrobotics.devilscoutserver.EncodingUtil.jsonEncode;
 
 import org.victorrobotics.bluealliance.Match.Alliance;
+import org.victorrobotics.devilscoutserver.analysis.AnalysisInput;
+import org.victorrobotics.devilscoutserver.database.DataEntry;
+import org.victorrobotics.devilscoutserver.database.EntryDatabase;
+import org.victorrobotics.devilscoutserver.database.EntryDatabase.NewEntry;
+import org.victorrobotics.devilscoutserver.database.EntryDatabase.UnknownOutcomeException;
 import org.victorrobotics.devilscoutserver.questions.Question;
 import org.victorrobotics.devilscoutserver.session.Session;
 import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache.MatchInfo;
 
 import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
+import io.javalin.http.GatewayTimeoutResponse;
+import io.javalin.http.HttpResponseException;
 import io.javalin.http.HttpStatus;
+import io.javalin.http.ServiceUnavailableResponse;
 
 public final class SubmissionController extends Controller {
   private static final String MATCH_KEY_PATH_PARAM   = "matchKey";
@@ -34,6 +45,8 @@ public final class SubmissionController extends Controller {
    * <li>400 BadRequest</li>
    * <li>401 Unauthorized</li>
    * <li>403 Forbidden</li>
+   * <li>503 ServiceUnavailable</li>
+   * <li>504 GatewayTimeout</li>
    * </ul>
    */
   public static void submitMatch(Context ctx) throws SQLException {
@@ -65,9 +78,9 @@ public final class SubmissionController extends Controller {
       throw schemaMismatch(eventKey);
     }
 
-    matchEntryDB().createEntry(eventKey, matchKey, session.getUser(), session.getTeam(), teamNum,
-                               jsonEncode(payload));
-    analysisCache().scheduleRefresh(eventKey, teamNum);
+    NewEntry newEntry = newEntry(eventKey, matchKey, session, teamNum, payload);
+    DataEntry entry = await(submit(matchEntryDB(), List.of(newEntry))).get(0);
+    analysisCache().addEntry(eventKey, teamNum, AnalysisInput.MATCH_ENTRIES, entry);
     ctx.status(HttpStatus.NO_CONTENT);
   }
 
@@ -83,6 +96,8 @@ public final class SubmissionController extends Controller {
    * <li>400 BadRequest</li>
    * <li>401 Unauthorized</li>
    * <li>403 Forbidden</li>
+   * <li>503 ServiceUnavailable</li>
+   * <li>504 GatewayTimeout</li>
    * </ul>
    */
   public static void submitPit(Context ctx) throws SQLException {
@@ -102,9 +117,9 @@ public final class SubmissionController extends Controller {
       throw schemaMismatch(eventKey);
     }
 
-    pitEntryDB().createEntry(eventKey, null, session.getUser(), session.getTeam(), teamNum,
-                             jsonEncode(payload));
-    analysisCache().scheduleRefresh(eventKey, teamNum);
+    NewEntry newEntry = newEntry(eventKey, null, session, teamNum, payload);
+    DataEntry entry = await(submit(pitEntryDB(), List.of(newEntry))).get(0);
+    analysisCache().addEntry(eventKey, teamNum, AnalysisInput.PIT_ENTRIES, entry);
     ctx.status(HttpStatus.NO_CONTENT);
   }
 
@@ -120,6 +135,8 @@ public final class SubmissionController extends Controller {
    * <li>400 BadRequest</li>
    * <li>401 Unauthorized</li>
    * <li>403 Forbidden</li>
+   * <li>503 ServiceUnavailable</li>
+   * <li>504 GatewayTimeout</li>
    * </ul>
    */
   @SuppressWarnings("java:S3047")
@@ -169,16 +186,55 @@ public final class SubmissionController extends Controller {
       }
     }
 
+    // Every team's entry is committed together, so a retry can't duplicate some of them
+    List<NewEntry> entries = new ArrayList<>(payload.size());
     for (Map.Entry<String, Map<String, Object>> entry : payload.entrySet()) {
-      int teamNum = Integer.parseInt(entry.getKey());
-      driveTeamEntryDB().createEntry(eventKey, matchKey, session.getUser(), session.getTeam(),
-                                     teamNum, jsonEncode(entry.getValue()));
-      analysisCache().scheduleRefresh(eventKey, teamNum);
+      entries.add(newEntry(eventKey, matchKey, session, Integer.parseInt(entry.getKey()),
+                           entry.getValue()));
+    }
+
+    if (!entries.isEmpty()) {
+      for (DataEntry entry : await(submit(driveTeamEntryDB(), entries))) {
+        analysisCache().addEntry(eventKey, entry.scoutedTeam(), AnalysisInput.DRIVE_TEAM_ENTRIES,
+                                 entry);
+      }
     }
 
     ctx.status(HttpStatus.NO_CONTENT);
   }
 
+  private static NewEntry newEntry(String eventKey, String matchKey, Session session,
+                                   int scoutedTeam, Object payload) {
+    return new NewEntry(eventKey, matchKey, session.getUser(), session.getTeam(), scoutedTeam,
+                        jsonEncode(payload));
+  }
+
+  private static CompletableFuture<List<DataEntry>> submit(EntryDatabase database,
+                                                           List<NewEntry> entries) {
+    try {
+      return database.submitEntries(entries);
+    } catch (SQLTransientException e) {
+      throw submissionsBusy();
+    }
+  }
+
+  // Responds only once the entries are committed. If that can't be known, the
+  // client is told not to resubmit, since the entries may already be stored.
+  private static List<DataEntry> await(CompletableFuture<List<DataEntry>> write)
+      throws SQLException {
+    try {
+      return EntryDatabase.await(write);
+    } catch (UnknownOutcomeException e) {
+      throw new GatewayTimeoutResponse("Submission may have been saved, do not resubmit");
+    } catch (SQLTransientException e) {
+      throw submissionsBusy();
+    }
+  }
+
+  private static HttpResponseException submissionsBusy() {
+    return new ServiceUnavailableResponse("Too many submissions, try again shortly");
+  }
+
   private static boolean teamOnAlliance(int team, int[] alliance) {
     for (int t : alliance) {
       if (team == t) return true;
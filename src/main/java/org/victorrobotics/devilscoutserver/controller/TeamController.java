@@ -82,8 +82,7 @@ public final class TeamController extends Controller {
 
     if (eventKey != null) {
       sessions().logoutTeam(teamNum);
-      matchScheduleCache().refresh(eventKey);
-      teamListsCache().refresh(eventKey);
+      refreshPipeline().refresh(eventKey);
     }
 
     ctx.json(team);
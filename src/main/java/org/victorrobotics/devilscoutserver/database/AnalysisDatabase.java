@@ -0,0 +1,85 @@
+package org.victorrobotics.devilscoutserver.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Checkpoints of encoded team statistics, so analysis can be served right
+ * after a restart while it is recomputed in the background. Unlike the other
+ * tables, this one only caches what the server computes, so the server
+ * creates it.
+ */
+@SuppressWarnings("java:S2325")
+public final class AnalysisDatabase extends Database {
+  private static final String CREATE_TABLE   =
+      "CREATE TABLE IF NOT EXISTS analysis_results (event_key text NOT NULL, "
+          + "team smallint NOT NULL, version bigint NOT NULL, statistics bytea NOT NULL, "
+          + "models bytea, PRIMARY KEY (event_key, team))";
+  private static final String ADD_MODELS     =
+      "ALTER TABLE analysis_results ADD COLUMN IF NOT EXISTS models bytea";
+  private static final String SELECT_RESULTS =
+      "SELECT event_key, team, version, statistics, models FROM analysis_results "
+          + "ORDER BY version DESC";
+  private static final String UPSERT_RESULT  =
+      "INSERT INTO analysis_results (event_key, team, version, statistics, models) "
+          + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (event_key, team) DO UPDATE "
+          + "SET version = EXCLUDED.version, statistics = EXCLUDED.statistics, "
+          + "models = EXCLUDED.models";
+  private static final String DELETE_RESULT  =
+      "DELETE FROM analysis_results WHERE event_key = ? AND team = ?";
+
+  public AnalysisDatabase() {}
+
+  /**
+   * Creates the checkpoint table, or adds columns missing from an older one.
+   */
+  public void createTable() throws SQLException {
+    try (Connection connection = getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.execute(CREATE_TABLE);
+      statement.execute(ADD_MODELS);
+    }
+  }
+
+  /**
+   * @return all checkpoints, most recently computed first
+   */
+  public List<AnalysisResult> getResults() throws SQLException {
+    try (Connection connection = getConnection();
+         PreparedStatement statement = connection.prepareStatement(SELECT_RESULTS);
+         ResultSet resultSet = statement.executeQuery()) {
+      return listFromDatabase(resultSet, AnalysisResult::fromDatabase);
+    }
+  }
+
+  public void saveResults(Collection<AnalysisResult> results) throws SQLException {
+    if (results.isEmpty()) return;
+
+    try (Connection connection = getConnection();
+         PreparedStatement statement = connection.prepareStatement(UPSERT_RESULT)) {
+      for (AnalysisResult result : results) {
+        statement.setString(1, result.eventKey());
+        statement.setShort(2, (short) result.team());
+        statement.setLong(3, result.version());
+        statement.setBytes(4, result.statistics());
+        statement.setBytes(5, result.models());
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  public void deleteResult(String eventKey, int team) throws SQLException {
+    try (Connection connection = getConnection();
+         PreparedStatement statement = connection.prepareStatement(DELETE_RESULT)) {
+      statement.setString(1, eventKey);
+      statement.setShort(2, (short) team);
+      statement.executeUpdate();
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.victorrobotics.devilscoutserver.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@SuppressWarnings("java:S6218") // never compared
+public record AnalysisResult(String eventKey,
+                             int team,
+                             long version,
+                             byte[] statistics,
+                             byte[] models) {
+  public static AnalysisResult fromDatabase(ResultSet resultSet) throws SQLException {
+    String eventKey = resultSet.getString(1);
+    int team = resultSet.getShort(2);
+    long version = resultSet.getLong(3);
+    byte[] statistics = resultSet.getBytes(4);
+    byte[] models = resultSet.getBytes(5);
+    return new AnalysisResult(eventKey, team, version, statistics, models);
+  }
+}
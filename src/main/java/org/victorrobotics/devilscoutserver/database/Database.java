@@ -12,7 +12,10 @@ import java.util.Set;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
-public sealed class Database permits UserDatabase, TeamDatabase, EntryDatabase {
+public sealed class Database
+    permits UserDatabase, TeamDatabase, EntryDatabase, AnalysisDatabase {
+  private static final int MAX_POOL_SIZE = 32;
+
   private static HikariDataSource CONNECTION_POOL;
 
   protected Database() {}
@@ -23,11 +26,15 @@ public sealed class Database permits UserDatabase, TeamDatabase, EntryDatabase {
     config.addDataSourceProperty("databaseName", "devilscoutserver");
     config.setUsername("team1559");
     config.setPassword(System.getenv("POSTGRESQL_PASSWORD"));
-    config.setMaximumPoolSize(32);
+    config.setMaximumPoolSize(MAX_POOL_SIZE);
     config.setMinimumIdle(4);
     CONNECTION_POOL = new HikariDataSource(config);
   }
 
+  public static int maxPoolSize() {
+    return MAX_POOL_SIZE;
+  }
+
   protected static Connection getConnection() throws SQLException {
     return CONNECTION_POOL.getConnection();
   }
@@ -1,37 +1,318 @@
 package org.victorrobotics.devilscoutserver.database;
 
+import static org.victorrobotics.devilscoutserver.EncodingUtil.jsonDecode;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Entries are written by {@link #writeLoop}, which groups submissions that
+ * arrive within a few milliseconds of each other into one multi-row INSERT.
+ * A burst of submissions after a match then holds one connection, not one per
+ * request. Each batch is one transaction, and a submission's entries are
+ * always written together.
+ */
 public final class EntryDatabase extends Database {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EntryDatabase.class);
+
+  private static final int  QUEUE_CAPACITY       = 1024;
+  private static final int  MAX_BATCH_SIZE       = 64; // rows
+  private static final long FLUSH_DELAY_MILLIS   = 20;
+  private static final long OFFER_TIMEOUT_MILLIS = 2000;
+  private static final long AWAIT_TIMEOUT_MILLIS = 8000;
+
+  /**
+   * Thrown when a write was sent but it isn't known whether it was committed,
+   * so submitting again may store the entries twice.
+   */
+  public static final class UnknownOutcomeException extends SQLException {
+    UnknownOutcomeException(String reason, Throwable cause) {
+      super(reason, cause);
+    }
+  }
+
+  public record NewEntry(String eventKey,
+                         String matchKey,
+                         String submittingUser,
+                         int submittingTeam,
+                         int scoutedTeam,
+                         String json) {}
+
+  private record PendingWrite(List<NewEntry> entries,
+                              CompletableFuture<List<DataEntry>> result) {}
+
+  // Identifies which submitted entry a returned row is
+  private record RowKey(String eventKey,
+                        String matchKey,
+                        String submittingUser,
+                        int submittingTeam,
+                        int scoutedTeam,
+                        JsonNode json) {
+    static RowKey of(NewEntry entry) {
+      return new RowKey(entry.eventKey(), entry.matchKey(), entry.submittingUser(),
+                        entry.submittingTeam(), entry.scoutedTeam(),
+                        jsonDecode(entry.json(), JsonNode.class));
+    }
+
+    static RowKey of(DataEntry entry) {
+      return new RowKey(entry.eventKey(), entry.matchKey(), entry.submittingUser(),
+                        entry.submittingTeam(), entry.scoutedTeam(), entry.json());
+    }
+  }
+
   private final String  databaseName;
   private final boolean hasMatchKeys;
 
+  private final BlockingQueue<PendingWrite> writeQueue;
+
   public EntryDatabase(String name, boolean hasMatchKeys) {
     this.databaseName = name;
     this.hasMatchKeys = hasMatchKeys;
+    this.writeQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  }
+
+  /**
+   * Queues one submission's entries for the next batched write. They are
+   * committed together or not at all.
+   *
+   * @return the stored entries in the same order, completed once committed
+   * @throws SQLTransientException if the queue stays full, in which case
+   *         nothing was queued
+   */
+  public CompletableFuture<List<DataEntry>> submitEntries(List<NewEntry> entries)
+      throws SQLTransientException {
+    if (entries.isEmpty() || entries.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("Expected 1-" + MAX_BATCH_SIZE + " entries");
+    }
+
+    PendingWrite write = new PendingWrite(List.copyOf(entries), new CompletableFuture<>());
+    try {
+      if (!writeQueue.offer(write, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        throw new SQLTransientException("Write queue for " + databaseName + " is full");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+            .interrupt();
+      throw new SQLTransientException(e);
+    }
+    return write.result();
   }
 
-  public void createEntry(String eventKey, String matchKey, String submittingUser,
-                          int submittingTeam, int scoutedTeam, String json)
+  /**
+   * @throws SQLTransientException if the database couldn't be reached before
+   *         committing, in which case nothing was stored
+   * @throws UnknownOutcomeException if the write didn't finish in time, or the
+   *         commit failed, in which case the entries may have been stored
+   */
+  public static List<DataEntry> await(CompletableFuture<List<DataEntry>> write)
       throws SQLException {
-    try (Connection connection = getConnection();
-         PreparedStatement statement = connection.prepareStatement(insertEntry())) {
+    try {
+      return write.get(AWAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+            .interrupt();
+      throw new UnknownOutcomeException("Interrupted waiting for write", e);
+    } catch (TimeoutException e) {
+      // Still queued or in flight, and may yet be committed
+      throw new UnknownOutcomeException("Timed out waiting for write", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UnknownOutcomeException cause) throw cause;
+      if (e.getCause() instanceof SQLException cause) {
+        throw isConnectionFailure(cause) ? new SQLTransientException(cause) : cause;
+      }
+      throw new SQLException(e.getCause());
+    }
+  }
+
+  // Intentional infinite loop, nothing may stop the writer
+  @SuppressWarnings({ "java:S2189", "java:S1181" })
+  public void writeLoop() {
+    List<PendingWrite> batch = new ArrayList<>();
+    while (true) {
+      try {
+        PendingWrite first = writeQueue.take();
+        batch.add(first);
+        int rows = first.entries()
+                        .size();
+
+        // Give the rest of a burst a moment to arrive
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_DELAY_MILLIS);
+        while (rows < MAX_BATCH_SIZE) {
+          PendingWrite next = writeQueue.peek();
+          if (next != null && rows + next.entries()
+                                        .size() > MAX_BATCH_SIZE) {
+            break;
+          }
+
+          next = writeQueue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (next == null) break;
+
+          batch.add(next);
+          rows += next.entries()
+                      .size();
+        }
+      } catch (InterruptedException e) {
+        if (batch.isEmpty()) continue;
+      }
+
+      try {
+        write(batch);
+      } catch (Throwable e) {
+        LOGGER.error("Error while writing {} submissions to {}", batch.size(), databaseName, e);
+        fail(batch, e);
+      }
+      batch.clear();
+    }
+  }
+
+  private void write(List<PendingWrite> batch) {
+    boolean retry = false;
+    try (Connection connection = getConnection()) {
+      connection.setAutoCommit(false);
+      List<List<DataEntry>> written = null;
+      try {
+        written = insertEntries(connection, batch);
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        if (batch.size() == 1 || isConnectionFailure(e)) throw e;
+
+        // Nothing was committed, so one bad submission can be isolated
+        LOGGER.warn("Error while writing {} submissions to {}, retrying one at a time",
+                    batch.size(), databaseName, e);
+        retry = true;
+      }
+
+      if (written != null) {
+        commit(connection);
+        for (int i = 0; i < batch.size(); i++) {
+          batch.get(i)
+               .result()
+               .complete(written.get(i));
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      fail(batch, e);
+      return;
+    }
+
+    if (retry) {
+      for (PendingWrite write : batch) {
+        write(List.of(write));
+      }
+    }
+  }
+
+  /**
+   * Inserts every entry of the batch with one statement, without committing.
+   * Returned rows are matched to entries by their contents, since RETURNING
+   * doesn't promise any order.
+   */
+  private List<List<DataEntry>> insertEntries(Connection connection, List<PendingWrite> batch)
+      throws SQLException {
+    List<NewEntry> entries = new ArrayList<>();
+    for (PendingWrite write : batch) {
+      entries.addAll(write.entries());
+    }
+
+    // Identical entries are interchangeable, so any of their positions will do
+    Map<RowKey, Deque<Integer>> positions = new HashMap<>();
+    for (int i = 0; i < entries.size(); i++) {
+      positions.computeIfAbsent(RowKey.of(entries.get(i)), k -> new ArrayDeque<>())
+               .add(i);
+    }
+
+    DataEntry[] written = new DataEntry[entries.size()];
+    try (PreparedStatement statement =
+        connection.prepareStatement(insertEntries(entries.size()))) {
       int index = 1;
-      statement.setString(index++, eventKey);
-      if (hasMatchKeys) {
-        statement.setString(index++, matchKey);
+      for (NewEntry entry : entries) {
+        statement.setString(index++, entry.eventKey());
+        if (hasMatchKeys) {
+          statement.setString(index++, entry.matchKey());
+        }
+        statement.setString(index++, entry.submittingUser());
+        statement.setShort(index++, (short) entry.submittingTeam());
+        statement.setShort(index++, (short) entry.scoutedTeam());
+        statement.setObject(index++, entry.json());
       }
-      statement.setString(index++, submittingUser);
-      statement.setShort(index++, (short) submittingTeam);
-      statement.setShort(index++, (short) scoutedTeam);
-      statement.setObject(index++, json);
 
-      statement.execute();
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          DataEntry entry = hasMatchKeys ? DataEntry.fromDatabaseWithMatch(resultSet)
+              : DataEntry.fromDatabase(resultSet);
+          Deque<Integer> matching = positions.get(RowKey.of(entry));
+          if (matching == null || matching.isEmpty()) {
+            throw new SQLException("Inserted row " + entry.id() + " matches no submission");
+          }
+          written[matching.poll()] = entry;
+        }
+      }
     }
+
+    List<List<DataEntry>> results = new ArrayList<>(batch.size());
+    int position = 0;
+    for (PendingWrite write : batch) {
+      List<DataEntry> result = new ArrayList<>(write.entries()
+                                                    .size());
+      for (int i = 0; i < write.entries()
+                               .size(); i++) {
+        if (written[position] == null) {
+          throw new SQLException("No row returned for a submitted entry");
+        }
+        result.add(written[position++]);
+      }
+      results.add(Collections.unmodifiableList(result));
+    }
+    return results;
+  }
+
+  private static void commit(Connection connection) throws UnknownOutcomeException {
+    try {
+      connection.commit();
+    } catch (SQLException e) {
+      // The commit may have been applied before the failure was reported
+      throw new UnknownOutcomeException("Commit failed", e);
+    }
+  }
+
+  private static void fail(List<PendingWrite> batch, Throwable cause) {
+    for (PendingWrite write : batch) {
+      write.result()
+           .completeExceptionally(cause);
+    }
+  }
+
+  // Retrying on another connection wouldn't help. Failed commits are reported
+  // separately, so a connection failure here means nothing was stored.
+  private static boolean isConnectionFailure(Exception e) {
+    if (e instanceof SQLTransientConnectionException
+        || e instanceof SQLNonTransientConnectionException) {
+      return true;
+    }
+    return e instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState()
+                                                                            .startsWith("08");
   }
 
   public List<DataEntry> getEntries(String eventKey, int scoutedTeam) throws SQLException {
@@ -47,13 +328,30 @@ public final class EntryDatabase extends Database {
     }
   }
 
-  private String insertEntry() {
+  public List<DataEntry> getEntries(String eventKey) throws SQLException {
+    try (Connection connection = getConnection();
+         PreparedStatement statement = connection.prepareStatement(selectEntriesByEvent())) {
+      statement.setString(1, eventKey);
+
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return listFromDatabase(resultSet, hasMatchKeys ? DataEntry::fromDatabaseWithMatch
+            : DataEntry::fromDatabase);
+      }
+    }
+  }
+
+  private String insertEntries(int count) {
+    String row = "(" + (hasMatchKeys ? "?, " : "") + "?, ?, ?, ?, ?::JSON)";
     return "INSERT INTO " + databaseName + " (event_key, " + (hasMatchKeys ? "match_key, " : "")
-        + "submitting_user, submitting_team, scouted_team, data) " + "VALUES ("
-        + (hasMatchKeys ? "?, " : "") + "?, ?, ?, ?, ?::JSON)";
+        + "submitting_user, submitting_team, scouted_team, data) " + "VALUES "
+        + String.join(", ", Collections.nCopies(count, row)) + " RETURNING *";
   }
 
   private String selectEntriesByTeamAndYear() {
     return "SELECT * FROM " + databaseName + " WHERE scouted_team = ? AND event_key = ?";
   }
+
+  private String selectEntriesByEvent() {
+    return "SELECT * FROM " + databaseName + " WHERE event_key = ?";
+  }
 }
@@ -0,0 +1,87 @@
+package org.victorrobotics.devilscoutserver.database;
+
+import org.victorrobotics.devilscoutserver.store.EntryRow;
+import org.victorrobotics.devilscoutserver.store.EntrySchema;
+
+/**
+ * A field of a scouting entry, read from the matching column of an entry's
+ * table. The column index is resolved once per schema rather than per read,
+ * and values come back as primitives instead of boxed objects.
+ */
+public final class EntryField {
+  public static final int MISSING = Integer.MIN_VALUE;
+
+  public static final int FALSE = 0;
+  public static final int TRUE  = 1;
+
+  private record Resolved(EntrySchema schema,
+                          int column) {}
+
+  private final String path;
+
+  // Tables of one analyzer all share a schema, so this rarely changes
+  private volatile Resolved resolved;
+
+  private EntryField(String path) {
+    this.path = path;
+  }
+
+  public static EntryField of(String path) {
+    return new EntryField(path);
+  }
+
+  /**
+   * @return the integer value, or {@link #MISSING}
+   */
+  public int getInt(EntryRow row) {
+    int column = column(row);
+    return column == -1 ? MISSING
+        : row.table()
+             .getInt(row.index(), column);
+  }
+
+  /**
+   * @return {@link #TRUE}, {@link #FALSE}, or {@link #MISSING}
+   */
+  public int getBoolean(EntryRow row) {
+    int column = column(row);
+    return column == -1 ? MISSING
+        : row.table()
+             .getBoolean(row.index(), column);
+  }
+
+  /**
+   * @return the length of a numeric array (1 for a single number), or -1 if
+   *         missing or not all numeric
+   */
+  public int getLength(EntryRow row) {
+    int column = column(row);
+    return column == -1 ? -1
+        : row.table()
+             .getLength(row.index(), column);
+  }
+
+  /**
+   * @param index below {@link #getLength}
+   */
+  public int getInt(EntryRow row, int index) {
+    return row.table()
+              .getElement(row.index(), column(row), index);
+  }
+
+  private int column(EntryRow row) {
+    EntrySchema schema = row.table()
+                            .getSchema();
+    Resolved current = resolved;
+    if (current == null || current.schema() != schema) {
+      current = new Resolved(schema, schema.indexOf(path));
+      resolved = current;
+    }
+    return current.column();
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
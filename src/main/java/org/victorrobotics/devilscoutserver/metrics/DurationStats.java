@@ -0,0 +1,44 @@
+package org.victorrobotics.devilscoutserver.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+public class DurationStats {
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  public record Summary(long count,
+                        double lastMillis,
+                        double averageMillis,
+                        double maxMillis) {}
+
+  private final AtomicLong      count;
+  private final AtomicLong      totalNanos;
+  private final LongAccumulator maxNanos;
+
+  private volatile long lastNanos;
+
+  public DurationStats() {
+    count = new AtomicLong();
+    totalNanos = new AtomicLong();
+    maxNanos = new LongAccumulator(Math::max, 0);
+  }
+
+  public void record(long nanos) {
+    count.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+    maxNanos.accumulate(nanos);
+    lastNanos = nanos;
+  }
+
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public Summary summary() {
+    long n = count.get();
+    return new Summary(n, lastNanos / NANOS_PER_MILLI,
+                       n == 0 ? 0 : totalNanos.get() / NANOS_PER_MILLI / n,
+                       maxNanos.get() / NANOS_PER_MILLI);
+  }
+}
@@ -0,0 +1,198 @@
+package org.victorrobotics.devilscoutserver.pipeline;
+
+import org.victorrobotics.devilscoutserver.metrics.DurationStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Refreshes per-event data through a graph of stages. A stage only runs once
+ * all of its upstream stages have finished for that event, and only if one of
+ * them reported a change. Independent stages and separate events run in
+ * parallel.
+ */
+public class RefreshPipeline {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RefreshPipeline.class);
+
+  public static final class Stage {
+    private final String              name;
+    private final Refreshable<String> target;
+    private final List<Stage>         upstream;
+    private final List<Stage>         downstream;
+
+    private final AtomicLong    changes;
+    private final DurationStats durations;
+
+    Stage(String name, Refreshable<String> target, List<Stage> upstream) {
+      this.name = name;
+      this.target = target;
+      this.upstream = upstream;
+      this.downstream = new ArrayList<>();
+
+      changes = new AtomicLong();
+      durations = new DurationStats();
+    }
+
+    boolean run(String eventKey) {
+      long start = System.nanoTime();
+      boolean changed;
+      try {
+        changed = target.refresh(eventKey);
+      } catch (Exception e) {
+        LOGGER.warn("Error in stage {} for event {}", name, eventKey, e);
+        changed = false;
+      }
+
+      durations.recordSince(start);
+      if (changed) {
+        changes.incrementAndGet();
+      }
+      return changed;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    StageTimings timings() {
+      return new StageTimings(name, upstream.stream()
+                                            .map(Stage::getName)
+                                            .toList(),
+                              changes.get(), durations.summary());
+    }
+  }
+
+  public record StageTimings(String name,
+                             List<String> upstream,
+                             long changes,
+                             DurationStats.Summary durations) {}
+
+  // Insertion order is a topological order, since upstream stages must exist
+  private final Map<String, Stage> stages;
+  private final Executor           executor;
+
+  public RefreshPipeline(Executor executor) {
+    this.stages = new LinkedHashMap<>();
+    this.executor = executor;
+  }
+
+  public synchronized Stage addStage(String name, Refreshable<String> target,
+                                     Stage... upstream) {
+    if (stages.containsKey(name)) {
+      throw new IllegalArgumentException("Duplicate stage " + name);
+    }
+
+    Stage stage = new Stage(name, target, List.of(upstream));
+    for (Stage parent : upstream) {
+      parent.downstream.add(stage);
+    }
+    stages.put(name, stage);
+    return stage;
+  }
+
+  /**
+   * Runs a single event through every stage of the pipeline.
+   */
+  public void refresh(String eventKey) {
+    run(roots(), List.of(eventKey));
+  }
+
+  /**
+   * Runs each event through the stages downstream of {@code root}, then drops
+   * cached data for events no longer in the list.
+   */
+  public void refreshAll(Stage root, Collection<String> eventKeys) {
+    for (Stage stage : run(List.of(root), eventKeys)) {
+      stage.target.removeStale(eventKeys);
+    }
+  }
+
+  public synchronized List<StageTimings> getTimings() {
+    return stages.values()
+                 .stream()
+                 .map(Stage::timings)
+                 .toList();
+  }
+
+  private List<Stage> run(Collection<Stage> roots, Collection<String> eventKeys) {
+    long start = System.currentTimeMillis();
+    List<Stage> order = topologicalOrder(roots);
+
+    List<CompletableFuture<?>> events = new ArrayList<>();
+    for (String eventKey : eventKeys) {
+      events.add(runEvent(eventKey, roots, order));
+    }
+    CompletableFuture.allOf(events.toArray(CompletableFuture[]::new))
+                     .join();
+
+    LOGGER.info("Refreshed {} events through {} stages in {}ms", eventKeys.size(), order.size(),
+                System.currentTimeMillis() - start);
+    return order;
+  }
+
+  private CompletableFuture<Void> runEvent(String eventKey, Collection<Stage> roots,
+                                           List<Stage> order) {
+    Map<Stage, CompletableFuture<Boolean>> results = new HashMap<>();
+    for (Stage stage : order) {
+      List<CompletableFuture<Boolean>> inputs = new ArrayList<>();
+      for (Stage parent : stage.upstream) {
+        CompletableFuture<Boolean> result = results.get(parent);
+        if (result != null) {
+          inputs.add(result);
+        }
+      }
+
+      boolean isRoot = roots.contains(stage);
+      CompletableFuture<Boolean> result =
+          CompletableFuture.allOf(inputs.toArray(CompletableFuture[]::new))
+                           .thenApplyAsync(x -> {
+                             if (isRoot || inputs.stream()
+                                                 .anyMatch(CompletableFuture::join)) {
+                               return stage.run(eventKey);
+                             }
+                             return false;
+                           }, executor);
+      results.put(stage, result);
+    }
+    return CompletableFuture.allOf(results.values()
+                                          .toArray(CompletableFuture[]::new));
+  }
+
+  private synchronized List<Stage> topologicalOrder(Collection<Stage> roots) {
+    Set<Stage> reachable = new LinkedHashSet<>();
+    List<Stage> frontier = new ArrayList<>(roots);
+    while (!frontier.isEmpty()) {
+      Stage stage = frontier.remove(frontier.size() - 1);
+      if (reachable.add(stage)) {
+        frontier.addAll(stage.downstream);
+      }
+    }
+
+    List<Stage> order = new ArrayList<>();
+    for (Stage stage : stages.values()) {
+      if (reachable.contains(stage)) {
+        order.add(stage);
+      }
+    }
+    return order;
+  }
+
+  private synchronized List<Stage> roots() {
+    return stages.values()
+                 .stream()
+                 .filter(stage -> stage.upstream.isEmpty())
+                 .toList();
+  }
+}
@@ -0,0 +1,12 @@
+package org.victorrobotics.devilscoutserver.pipeline;
+
+import java.util.Collection;
+
+public interface Refreshable<K> {
+  /**
+   * @return whether anything changed as a result of the refresh
+   */
+  boolean refresh(K key);
+
+  default void removeStale(Collection<? extends K> activeKeys) {}
+}
@@ -0,0 +1,36 @@
+package org.victorrobotics.devilscoutserver.store;
+
+/**
+ * A reference to one entry in an {@link EntryTable}. Rows are never removed,
+ * so a row stays readable even after its table is replaced.
+ */
+public record EntryRow(EntryTable table,
+                       int index) {
+  public String id() {
+    return table.id(index);
+  }
+
+  public String eventKey() {
+    return table.getEventKey();
+  }
+
+  public String matchKey() {
+    return table.matchKey(index);
+  }
+
+  public int scoutedTeam() {
+    return table.scoutedTeam(index);
+  }
+
+  public String submittingUser() {
+    return table.submittingUser(index);
+  }
+
+  public int submittingTeam() {
+    return table.submittingTeam(index);
+  }
+
+  public long timestamp() {
+    return table.timestamp(index);
+  }
+}
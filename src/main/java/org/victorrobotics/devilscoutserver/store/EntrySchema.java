@@ -0,0 +1,82 @@
+package org.victorrobotics.devilscoutserver.store;
+
+import org.victorrobotics.devilscoutserver.questions.Question;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonPointer;
+
+/**
+ * The columns of an {@link EntryTable}, one per question. Columns are
+ * addressed by the JSON pointer path of their answer, e.g.
+ * {@code /teleop/score_amp}.
+ */
+public final class EntrySchema {
+  public enum ColumnType {
+    INT,
+    BOOLEAN,
+    INT_LIST;
+  }
+
+  public record Column(String path,
+                       JsonPointer pointer,
+                       ColumnType type) {}
+
+  private final List<Column>         columns;
+  private final Map<String, Integer> indices;
+
+  private EntrySchema(List<Column> columns) {
+    this.columns = List.copyOf(columns);
+    this.indices = new HashMap<>();
+    for (int i = 0; i < columns.size(); i++) {
+      indices.put(columns.get(i)
+                         .path(),
+                  i);
+    }
+  }
+
+  public static EntrySchema ofPages(List<Question.Page> pages) {
+    List<Column> columns = new ArrayList<>();
+    for (Question.Page page : pages) {
+      for (Question question : page.questions()) {
+        columns.add(column("/" + page.key() + "/" + question.key, question));
+      }
+    }
+    return new EntrySchema(columns);
+  }
+
+  public static EntrySchema of(List<Question> questions) {
+    List<Column> columns = new ArrayList<>();
+    for (Question question : questions) {
+      columns.add(column("/" + question.key, question));
+    }
+    return new EntrySchema(columns);
+  }
+
+  private static Column column(String path, Question question) {
+    ColumnType type = switch (question.type) {
+      case BOOLEAN -> ColumnType.BOOLEAN;
+      case MULTIPLE, SEQUENCE -> ColumnType.INT_LIST;
+      case COUNTER, NUMBER, RANGE, SINGLE -> ColumnType.INT;
+    };
+    return new Column(path, JsonPointer.compile(path), type);
+  }
+
+  /**
+   * @return the index of the column, or -1 if there is none
+   */
+  public int indexOf(String path) {
+    return indices.getOrDefault(path, -1);
+  }
+
+  public Column column(int index) {
+    return columns.get(index);
+  }
+
+  public int size() {
+    return columns.size();
+  }
+}
@@ -0,0 +1,126 @@
+package org.victorrobotics.devilscoutserver.store;
+
+import org.victorrobotics.devilscoutserver.database.DataEntry;
+import org.victorrobotics.devilscoutserver.database.EntryDatabase;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory columnar copies of one entry database, one table per event.
+ * Tables load from the database on first read, on the analysis thread that
+ * needs them. Submissions that arrive before then are held in a small table
+ * of their own, which is merged in once the event loads.
+ */
+public final class EntryStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EntryStore.class);
+
+  private final EntryDatabase database;
+  private final EntrySchema   schema;
+
+  // Guarded by this, along with appends
+  private final ConcurrentMap<String, EntryTable> tables;
+  private final Map<String, EntryTable>           unloaded;
+
+  public EntryStore(EntryDatabase database, EntrySchema schema) {
+    this.database = database;
+    this.schema = schema;
+    this.tables = new ConcurrentHashMap<>();
+    this.unloaded = new HashMap<>();
+  }
+
+  /**
+   * @return the event's table, loading it first if needed
+   */
+  public EntryTable table(String eventKey) {
+    EntryTable table = tables.get(eventKey);
+    if (table != null) return table;
+
+    // Outside of any lock, concurrent first reads may both load
+    EntryTable loaded = load(eventKey);
+    synchronized (this) {
+      table = tables.get(eventKey);
+      if (table != null) return table;
+
+      install(eventKey, loaded);
+      return loaded;
+    }
+  }
+
+  /**
+   * Stores a submitted entry without waiting for the event to load.
+   */
+  public synchronized EntryRow append(DataEntry entry) {
+    EntryTable table = tables.get(entry.eventKey());
+    if (table == null) {
+      table = unloaded.computeIfAbsent(entry.eventKey(), k -> new EntryTable(k, schema));
+    }
+    return table.append(entry);
+  }
+
+  /**
+   * @return the index of the row's entry in its event's current table, which
+   *         differs from the row's own index if it was read from a table that
+   *         has since been replaced
+   */
+  public int currentRow(EntryRow row) {
+    EntryTable table = tables.get(row.eventKey());
+    if (table == null || table == row.table()) return row.index();
+
+    int index = table.rowOf(row.id());
+    // Merged in by the install, unless the event was dropped meanwhile
+    return index == -1 ? row.index() : index;
+  }
+
+  /**
+   * Replaces an event's table with a fresh copy from the database, keeping any
+   * entries appended while it loaded.
+   */
+  public void reload(String eventKey) {
+    EntryTable fresh = load(eventKey);
+    synchronized (this) {
+      install(eventKey, fresh);
+    }
+  }
+
+  public synchronized void removeStale(Collection<? extends String> activeEvents) {
+    tables.keySet()
+          .retainAll(activeEvents);
+    unloaded.keySet()
+            .retainAll(activeEvents);
+  }
+
+  // Called while synchronized
+  private void install(String eventKey, EntryTable fresh) {
+    EntryTable old = tables.put(eventKey, fresh);
+    if (old != null) {
+      fresh.copyMissing(old);
+    }
+
+    EntryTable early = unloaded.remove(eventKey);
+    if (early != null) {
+      fresh.copyMissing(early);
+    }
+  }
+
+  private EntryTable load(String eventKey) {
+    long start = System.currentTimeMillis();
+    EntryTable table = new EntryTable(eventKey, schema);
+    try {
+      table.appendAll(database.getEntries(eventKey));
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+
+    LOGGER.info("Loaded {} entries for event {} in {}ms", table.size(), eventKey,
+                System.currentTimeMillis() - start);
+    return table;
+  }
+}
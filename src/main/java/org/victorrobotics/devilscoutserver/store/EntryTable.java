@@ -0,0 +1,484 @@
+package org.victorrobotics.devilscoutserver.store;
+
+import org.victorrobotics.devilscoutserver.database.DataEntry;
+import org.victorrobotics.devilscoutserver.database.EntryField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Append-only columnar storage for one event's entries of one kind. Answers
+ * are decoded once on append into primitive arrays, so scans don't walk JSON
+ * trees. Match keys and submitting users are dictionary-encoded, and rows
+ * are indexed by match. Rows are found by id through an open-addressed table
+ * of row numbers, so ids are only stored once.
+ * <p>
+ * A stored row never changes, so each append publishes a {@link View} of the
+ * arrays as they are afterwards, or once per batch when loading. Field reads
+ * go through the latest view without locking; only appends and walks over
+ * the table take the lock.
+ */
+public final class EntryTable {
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * One column. Booleans are stored as {@link EntryField#TRUE} and
+   * {@link EntryField#FALSE}. Lists store their length in {@code values}, or
+   * -1 if missing, and their elements in {@code elements} from
+   * {@code starts}.
+   */
+  private static final class Column {
+    private final EntrySchema.ColumnType type;
+
+    private int[] values   = new int[INITIAL_CAPACITY];
+    private int[] starts   = new int[0];
+    private int[] elements = new int[0];
+    private int   elementCount;
+
+    Column(EntrySchema.ColumnType type) {
+      this.type = type;
+      if (type == EntrySchema.ColumnType.INT_LIST) {
+        starts = new int[INITIAL_CAPACITY];
+        elements = new int[INITIAL_CAPACITY];
+      }
+    }
+
+    void append(int row, JsonNode node) {
+      switch (type) {
+        case INT -> values[row] = node.isNumber() ? node.intValue() : EntryField.MISSING;
+        case BOOLEAN -> values[row] = !node.isBoolean() ? EntryField.MISSING
+            : node.booleanValue() ? EntryField.TRUE : EntryField.FALSE;
+        case INT_LIST -> appendList(row, node);
+      }
+    }
+
+    private void appendList(int row, JsonNode node) {
+      starts[row] = elementCount;
+      values[row] = -1;
+      if (node.isNumber()) {
+        ensureElements(elementCount + 1);
+        elements[elementCount++] = node.intValue();
+        values[row] = 1;
+        return;
+      }
+      if (!node.isArray()) return;
+
+      ensureElements(elementCount + node.size());
+      for (int i = 0; i < node.size(); i++) {
+        if (!node.get(i)
+                 .isNumber()) {
+          return;
+        }
+        elements[elementCount + i] = node.get(i)
+                                         .intValue();
+      }
+      elementCount += node.size();
+      values[row] = node.size();
+    }
+
+    void copy(int row, View from, int column, int fromRow) {
+      int value = from.values()[column][fromRow];
+      values[row] = value;
+      if (type != EntrySchema.ColumnType.INT_LIST) return;
+
+      starts[row] = elementCount;
+      if (value > 0) {
+        ensureElements(elementCount + value);
+        System.arraycopy(from.elements()[column], from.starts()[column][fromRow], elements,
+                         elementCount, value);
+        elementCount += value;
+      }
+    }
+
+    private void ensureElements(int capacity) {
+      if (capacity > elements.length) {
+        elements = Arrays.copyOf(elements, Math.max(capacity, elements.length * 2));
+      }
+    }
+
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+      if (type == EntrySchema.ColumnType.INT_LIST) {
+        starts = Arrays.copyOf(starts, capacity);
+      }
+    }
+  }
+
+  // The arrays as of an append. Arrays are only replaced when they grow, so
+  // slots below size are final once published.
+  @SuppressWarnings("java:S6218") // never compared
+  private record View(int size,
+                      String[] ids,
+                      int[] matchKeys,
+                      int[] scoutedTeams,
+                      int[] submittingUsers,
+                      int[] submittingTeams,
+                      long[] timestamps,
+                      String[] matchKeyDictionary,
+                      String[] userDictionary,
+                      int[][] values,
+                      int[][] starts,
+                      int[][] elements) {}
+
+  private final String      eventKey;
+  private final EntrySchema schema;
+  private final Column[]    columns;
+
+  private final Map<String, Integer> matchKeyIds;
+  private final List<List<Integer>>  matchRows; // by match key id
+  private final Map<String, Integer> userIds;
+
+  private final ReadWriteLock lock;
+
+  private String[] ids;
+  private int[]    idIndex; // row + 1 by hash of the id, 0 if empty
+  private int[]    matchKeys;
+  private int[]    scoutedTeams;
+  private int[]    submittingUsers;
+  private int[]    submittingTeams;
+  private long[]   timestamps;
+  private String[] matchKeyDictionary;
+  private String[] userDictionary;
+  private int      size;
+
+  private volatile View view;
+
+  public EntryTable(String eventKey, EntrySchema schema) {
+    this.eventKey = eventKey;
+    this.schema = schema;
+    this.columns = new Column[schema.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = new Column(schema.column(i)
+                                    .type());
+    }
+
+    this.matchKeyIds = new HashMap<>();
+    this.matchRows = new ArrayList<>();
+    this.userIds = new HashMap<>();
+    this.lock = new ReentrantReadWriteLock();
+
+    ids = new String[INITIAL_CAPACITY];
+    idIndex = new int[INITIAL_CAPACITY * 2];
+    matchKeys = new int[INITIAL_CAPACITY];
+    scoutedTeams = new int[INITIAL_CAPACITY];
+    submittingUsers = new int[INITIAL_CAPACITY];
+    submittingTeams = new int[INITIAL_CAPACITY];
+    timestamps = new long[INITIAL_CAPACITY];
+    matchKeyDictionary = new String[INITIAL_CAPACITY];
+    userDictionary = new String[INITIAL_CAPACITY];
+    publish();
+  }
+
+  /**
+   * Decodes and stores an entry. An entry that is already stored is not
+   * duplicated.
+   *
+   * @return the entry's row
+   */
+  public EntryRow append(DataEntry entry) {
+    lock.writeLock()
+        .lock();
+    try {
+      int row = store(entry);
+      publish();
+      return new EntryRow(this, row);
+    } finally {
+      lock.writeLock()
+          .unlock();
+    }
+  }
+
+  /**
+   * Stores entries as {@link #append} does, publishing them together once
+   * all are stored.
+   */
+  public void appendAll(Collection<DataEntry> entries) {
+    lock.writeLock()
+        .lock();
+    try {
+      for (DataEntry entry : entries) {
+        store(entry);
+      }
+      publish();
+    } finally {
+      lock.writeLock()
+          .unlock();
+    }
+  }
+
+  // Called with the write lock held
+  private int store(DataEntry entry) {
+    int existing = findRow(entry.id());
+    if (existing != -1) return existing;
+
+    int row = appendMetadata(entry.id(), entry.matchKey(), entry.scoutedTeam(),
+                             entry.submittingUser(), entry.submittingTeam(), entry.timestamp());
+    for (int i = 0; i < columns.length; i++) {
+      columns[i].append(row, entry.json()
+                                  .at(schema.column(i)
+                                            .pointer()));
+    }
+    return row;
+  }
+
+  /**
+   * Copies over rows of {@code other} that this table doesn't have, for
+   * entries submitted while this table was loading.
+   */
+  void copyMissing(EntryTable other) {
+    View from = other.view;
+    lock.writeLock()
+        .lock();
+    try {
+      for (int row = 0; row < from.size(); row++) {
+        if (findRow(from.ids()[row]) != -1) continue;
+
+        int copied = appendMetadata(from.ids()[row], other.matchKey(row),
+                                    from.scoutedTeams()[row], other.submittingUser(row),
+                                    from.submittingTeams()[row], from.timestamps()[row]);
+        for (int i = 0; i < columns.length; i++) {
+          columns[i].copy(copied, from, i, row);
+        }
+      }
+      publish();
+    } finally {
+      lock.writeLock()
+          .unlock();
+    }
+  }
+
+  private int appendMetadata(String id, String matchKey, int scoutedTeam,
+                             String submittingUser, int submittingTeam, long timestamp) {
+    if (size == ids.length) {
+      int capacity = size * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      matchKeys = Arrays.copyOf(matchKeys, capacity);
+      scoutedTeams = Arrays.copyOf(scoutedTeams, capacity);
+      submittingUsers = Arrays.copyOf(submittingUsers, capacity);
+      submittingTeams = Arrays.copyOf(submittingTeams, capacity);
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      for (Column column : columns) {
+        column.grow(capacity);
+      }
+    }
+
+    int row = size++;
+    ids[row] = id;
+    matchKeys[row] = matchKey == null ? -1 : matchKeyIds.computeIfAbsent(matchKey, k -> {
+      int next = matchKeyIds.size();
+      matchKeyDictionary = addWord(matchKeyDictionary, next, k);
+      matchRows.add(new ArrayList<>());
+      return next;
+    });
+    if (matchKeys[row] != -1) {
+      matchRows.get(matchKeys[row])
+               .add(row);
+    }
+    scoutedTeams[row] = scoutedTeam;
+    submittingUsers[row] = submittingUser == null ? -1
+        : userIds.computeIfAbsent(submittingUser, k -> {
+          int next = userIds.size();
+          userDictionary = addWord(userDictionary, next, k);
+          return next;
+        });
+    submittingTeams[row] = submittingTeam;
+    timestamps[row] = timestamp;
+    indexId(row);
+    return row;
+  }
+
+  // Called with the lock held
+  private int findRow(String id) {
+    int mask = idIndex.length - 1;
+    for (int slot = spread(id) & mask;; slot = (slot + 1) & mask) {
+      int entry = idIndex[slot];
+      if (entry == 0) return -1;
+      if (ids[entry - 1].equals(id)) return entry - 1;
+    }
+  }
+
+  // Keeps the index at most half full, so probes stay short
+  private void indexId(int row) {
+    if (size * 2 > idIndex.length) {
+      idIndex = new int[idIndex.length * 2];
+      for (int i = 0; i < size; i++) {
+        insertId(i);
+      }
+    } else {
+      insertId(row);
+    }
+  }
+
+  private void insertId(int row) {
+    int mask = idIndex.length - 1;
+    int slot = spread(ids[row]) & mask;
+    while (idIndex[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    idIndex[slot] = row + 1;
+  }
+
+  // Mixes the high bits in, as HashMap does
+  private static int spread(String id) {
+    int hash = id.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  private static String[] addWord(String[] dictionary, int index, String word) {
+    String[] words = index < dictionary.length ? dictionary
+        : Arrays.copyOf(dictionary, dictionary.length * 2);
+    words[index] = word;
+    return words;
+  }
+
+  // Called with the write lock held, after every change
+  private void publish() {
+    int[][] values = new int[columns.length][];
+    int[][] starts = new int[columns.length][];
+    int[][] elements = new int[columns.length][];
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = columns[i].values;
+      starts[i] = columns[i].starts;
+      elements[i] = columns[i].elements;
+    }
+    view = new View(size, ids, matchKeys, scoutedTeams, submittingUsers, submittingTeams,
+                    timestamps, matchKeyDictionary, userDictionary, values, starts, elements);
+  }
+
+  /**
+   * Visits every row, holding the read lock so appends wait until done.
+   */
+  public void scan(Consumer<EntryRow> action) {
+    lock.readLock()
+        .lock();
+    try {
+      for (int row = 0; row < size; row++) {
+        action.accept(new EntryRow(this, row));
+      }
+    } finally {
+      lock.readLock()
+          .unlock();
+    }
+  }
+
+  /**
+   * @return the rows of entries for the match, in the order they were stored
+   */
+  public List<EntryRow> matchRows(String matchKey) {
+    lock.readLock()
+        .lock();
+    try {
+      Integer id = matchKeyIds.get(matchKey);
+      if (id == null) return List.of();
+
+      List<Integer> rows = matchRows.get(id);
+      List<EntryRow> result = new ArrayList<>(rows.size());
+      for (int row : rows) {
+        result.add(new EntryRow(this, row));
+      }
+      return result;
+    } finally {
+      lock.readLock()
+          .unlock();
+    }
+  }
+
+  /**
+   * @return how many entries are stored for the match
+   */
+  public int matchSize(String matchKey) {
+    lock.readLock()
+        .lock();
+    try {
+      Integer id = matchKeyIds.get(matchKey);
+      return id == null ? 0 : matchRows.get(id)
+                                      .size();
+    } finally {
+      lock.readLock()
+          .unlock();
+    }
+  }
+
+  public String getEventKey() {
+    return eventKey;
+  }
+
+  public EntrySchema getSchema() {
+    return schema;
+  }
+
+  public int size() {
+    return view.size();
+  }
+
+  /**
+   * @return the row of the entry with the id, or -1 if it isn't stored
+   */
+  int rowOf(String id) {
+    lock.readLock()
+        .lock();
+    try {
+      return findRow(id);
+    } finally {
+      lock.readLock()
+          .unlock();
+    }
+  }
+
+  String id(int row) {
+    return view.ids()[row];
+  }
+
+  String matchKey(int row) {
+    View current = view;
+    int id = current.matchKeys()[row];
+    return id == -1 ? null : current.matchKeyDictionary()[id];
+  }
+
+  int scoutedTeam(int row) {
+    return view.scoutedTeams()[row];
+  }
+
+  String submittingUser(int row) {
+    View current = view;
+    int id = current.submittingUsers()[row];
+    return id == -1 ? null : current.userDictionary()[id];
+  }
+
+  int submittingTeam(int row) {
+    return view.submittingTeams()[row];
+  }
+
+  long timestamp(int row) {
+    return view.timestamps()[row];
+  }
+
+  public int getInt(int row, int column) {
+    return view.values()[column][row];
+  }
+
+  public int getBoolean(int row, int column) {
+    return view.values()[column][row];
+  }
+
+  /**
+   * @return the length of a list, or -1 if missing
+   */
+  public int getLength(int row, int column) {
+    return view.values()[column][row];
+  }
+
+  public int getElement(int row, int column, int index) {
+    View current = view;
+    return current.elements()[column][current.starts()[column][row] + index];
+  }
+}
@@ -3,18 +3,21 @@ package org.victorrobotics.devilscoutserver.tba;
 import org.victorrobotics.bluealliance.Endpoint;
 import org.victorrobotics.devilscoutserver.cache.Cache;
 import org.victorrobotics.devilscoutserver.cache.Cacheable;
+import org.victorrobotics.devilscoutserver.pipeline.Refreshable;
 
 import java.util.Collection;
 
-public abstract class BlueAllianceCache<K, D, V extends Cacheable<D>> extends Cache<K, D, V> {
+public abstract class BlueAllianceCache<K, D, V extends Cacheable<D>> extends Cache<K, D, V>
+    implements Refreshable<K> {
   protected abstract Endpoint<D> getEndpoint(K key);
 
   protected abstract V createValue(K key, D data);
 
-  public void refresh(K key) {
+  @Override
+  public boolean refresh(K key) {
     if (key == null) {
       getLogger().warn("Attempted to refresh a null key", new NullPointerException());
-      return;
+      return false;
     }
 
     try {
@@ -30,7 +33,7 @@ public abstract class BlueAllianceCache<K, D, V extends Cacheable<D>> extends Ca
           getLogger().info("Removed entry for key {} in {}ms", key,
                            System.currentTimeMillis() - start);
         }
-        return;
+        return hadKey;
       }
 
       Value<D, V> value = get(key);
@@ -38,19 +41,26 @@ public abstract class BlueAllianceCache<K, D, V extends Cacheable<D>> extends Ca
         cacheMap.put(key, new Value<>(createValue(key, data), this::modified));
         modified();
         getLogger().info("Added entry for key {} in {}ms", key, System.currentTimeMillis() - start);
-      } else {
-        value.update(data);
-        getLogger().info("Refreshed entry for key {} in {}ms", key,
-                         System.currentTimeMillis() - start);
+        return true;
       }
+
+      boolean changed = value.update(data);
+      getLogger().info("Refreshed entry for key {} in {}ms", key,
+                       System.currentTimeMillis() - start);
+      return changed;
     } catch (Exception e) {
       getLogger().warn("Error while refreshing key {}", key, e);
+      return false;
     }
   }
 
   public void refreshAll(Collection<? extends K> keys) {
     keys.forEach(this::refresh);
+    removeStale(keys);
+  }
 
+  @Override
+  public void removeStale(Collection<? extends K> keys) {
     long start = System.currentTimeMillis();
     int size = size();
     if (keySet().retainAll(keys)) {
@@ -4,14 +4,19 @@ import org.victorrobotics.bluealliance.Endpoint;
 import org.victorrobotics.bluealliance.Match;
 import org.victorrobotics.bluealliance.ScoreBreakdown;
 import org.victorrobotics.devilscoutserver.analysis.AnalysisCache;
+import org.victorrobotics.devilscoutserver.analysis.AnalysisInput;
 import org.victorrobotics.devilscoutserver.cache.Cacheable;
 import org.victorrobotics.devilscoutserver.cache.ListValue;
 
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,7 +50,6 @@ public class MatchScheduleCache
 
   public class MatchInfo implements Cacheable<Match> {
     private final String     key;
-    private final String     eventKey;
     private final String     name;
     private final MatchLevel level;
     private final int        set;
@@ -59,9 +63,11 @@ public class MatchScheduleCache
     private ScoreBreakdown redBreakdown;
     private ScoreBreakdown blueBreakdown;
 
+    // Teams whose score breakdown changed, collected by the schedule
+    private final Set<Integer> breakdownChanges = new LinkedHashSet<>();
+
     MatchInfo(Match match) {
       this.key = match.key();
-      this.eventKey = match.eventKey();
       this.level = MatchLevel.of(match.level());
       this.set = match.setNumber();
       this.number = match.matchNumber();
@@ -122,7 +128,7 @@ public class MatchScheduleCache
         blueBreakdown = match.blueBreakdown();
         change = true;
         for (int team : blue) {
-          analysis.scheduleRefresh(eventKey, team);
+          breakdownChanges.add(team);
         }
       }
 
@@ -130,7 +136,7 @@ public class MatchScheduleCache
         redBreakdown = match.redBreakdown();
         change = true;
         for (int team : red) {
-          analysis.scheduleRefresh(eventKey, team);
+          breakdownChanges.add(team);
         }
       }
 
@@ -271,6 +277,21 @@ public class MatchScheduleCache
       update(matches);
     }
 
+    @Override
+    public boolean update(List<Match> matches) {
+      boolean change = super.update(matches);
+
+      Map<Integer, Set<AnalysisInput>> teamChanges = new LinkedHashMap<>();
+      for (MatchInfo match : values()) {
+        for (Integer team : match.breakdownChanges) {
+          teamChanges.put(team, Set.of(AnalysisInput.SCORE_BREAKDOWN));
+        }
+        match.breakdownChanges.clear();
+      }
+      analysis.scheduleEventRefresh(eventKey, teamChanges);
+      return change;
+    }
+
     @Override
     protected MatchInfo createValue(String key, Match data) {
       return new MatchInfo(data);
@@ -285,25 +306,11 @@ public class MatchScheduleCache
     protected List<Match> getList(List<Match> data) {
       return data;
     }
-
-    @Override
-    public boolean update(List<Match> data) {
-      boolean update = super.update(data);
-      if (update) {
-        oprs.refresh(eventKey);
-        rankings.refresh(eventKey);
-      }
-      return update;
-    }
   }
 
-  private final OprsCache     oprs;
-  private final RankingsCache rankings;
   private final AnalysisCache analysis;
 
-  public MatchScheduleCache(OprsCache oprs, RankingsCache rankings, AnalysisCache analysis) {
-    this.oprs = oprs;
-    this.rankings = rankings;
+  public MatchScheduleCache(AnalysisCache analysis) {
     this.analysis = analysis;
   }
 
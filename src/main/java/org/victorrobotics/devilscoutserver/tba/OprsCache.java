@@ -4,9 +4,11 @@ import org.victorrobotics.bluealliance.Endpoint;
 import org.victorrobotics.bluealliance.Event;
 import org.victorrobotics.bluealliance.Event.OPRs;
 import org.victorrobotics.devilscoutserver.analysis.AnalysisCache;
+import org.victorrobotics.devilscoutserver.analysis.AnalysisInput;
 import org.victorrobotics.devilscoutserver.cache.Cacheable;
 import org.victorrobotics.devilscoutserver.tba.OprsCache.Oprs;
 
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -83,42 +85,46 @@ public class OprsCache extends BlueAllianceCache<String, OPRs, Oprs> {
       boolean mods = teamOprs.keySet()
                              .retainAll(teams);
 
+      Map<Integer, Set<AnalysisInput>> teamChanges = new LinkedHashMap<>();
       for (int team : teams) {
-        if (updateTeam(team, oprs)) {
-          mods = true;
-          analysis.scheduleRefresh(eventKey, team);
+        Set<AnalysisInput> changes = updateTeam(team, oprs);
+        if (!changes.isEmpty()) {
+          teamChanges.put(team, changes);
         }
-        mods |= updateTeam(team, oprs);
       }
 
+      if (!teamChanges.isEmpty()) {
+        mods = true;
+        analysis.scheduleEventRefresh(eventKey, teamChanges);
+      }
       return mods;
     }
 
     @SuppressWarnings("java:S1244") // floating point equality
-    private boolean updateTeam(int team, OPRs oprs) {
+    private Set<AnalysisInput> updateTeam(int team, OPRs oprs) {
       String teamKey = "frc" + team;
       TeamOpr teamOpr = teamOprs.computeIfAbsent(team, t -> new TeamOpr());
-      boolean mods = false;
+      Set<AnalysisInput> mods = EnumSet.noneOf(AnalysisInput.class);
 
       Double opr = oprs.oprs()
                        .get(teamKey);
       if (opr != null && opr != teamOpr.opr) {
         teamOpr.opr = opr;
-        mods = true;
+        mods.add(AnalysisInput.OPR);
       }
 
       Double dpr = oprs.dprs()
                        .get(teamKey);
       if (dpr != null && dpr != teamOpr.dpr) {
         teamOpr.dpr = dpr;
-        mods = true;
+        mods.add(AnalysisInput.DPR);
       }
 
       Double ccwm = oprs.ccwms()
                         .get(teamKey);
       if (ccwm != null && ccwm != teamOpr.ccwm) {
         teamOpr.ccwm = ccwm;
-        mods = true;
+        mods.add(AnalysisInput.CCWM);
       }
 
       return mods;
@@ -4,11 +4,16 @@ import org.victorrobotics.bluealliance.Endpoint;
 import org.victorrobotics.bluealliance.Event;
 import org.victorrobotics.bluealliance.Event.WinLossRecord;
 import org.victorrobotics.devilscoutserver.analysis.AnalysisCache;
+import org.victorrobotics.devilscoutserver.analysis.AnalysisInput;
 import org.victorrobotics.devilscoutserver.cache.Cacheable;
 import org.victorrobotics.devilscoutserver.cache.ListValue;
 
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 public class RankingsCache
     extends BlueAllianceCache<String, Event.Rankings, RankingsCache.Rankings> {
@@ -16,37 +21,45 @@ public class RankingsCache
     private final int    number;
     private final String eventKey;
 
-    private WinLossRecord winLossRecord;
-    private int           rank;
+    private WinLossRecord      winLossRecord;
+    private int                rank;
+    private Set<AnalysisInput> changes;
 
     public Team(String eventKey, Event.Rankings.Team data) {
       this.eventKey = eventKey;
       this.number = Integer.parseInt(data.teamKey()
                                          .substring(3));
+      this.changes = EnumSet.noneOf(AnalysisInput.class);
       update(data);
     }
 
+    // Synchronized with takeChanges, a refresh may run from a request too
     @Override
-    public boolean update(Event.Rankings.Team data) {
+    public synchronized boolean update(Event.Rankings.Team data) {
       boolean change = false;
 
       if (!Objects.equals(winLossRecord, data.winLossRecord())) {
         winLossRecord = data.winLossRecord();
+        changes.add(AnalysisInput.WIN_LOSS_RECORD);
         change = true;
       }
 
       if (rank != data.rank()) {
         rank = data.rank();
+        changes.add(AnalysisInput.RANK);
         change = true;
       }
 
-      if (change) {
-        analysis.scheduleRefresh(eventKey, number);
-      }
-
       return change;
     }
 
+    // Collected by the rankings, to schedule the whole event at once
+    synchronized Set<AnalysisInput> takeChanges() {
+      Set<AnalysisInput> taken = changes;
+      changes = EnumSet.noneOf(AnalysisInput.class);
+      return taken;
+    }
+
     public int getNumber() {
       return number;
     }
@@ -73,6 +86,22 @@ public class RankingsCache
       update(data);
     }
 
+    // One pass at a time, so each pass hands off the changes it made
+    @Override
+    public synchronized boolean update(Event.Rankings data) {
+      boolean change = super.update(data);
+
+      Map<Integer, Set<AnalysisInput>> teamChanges = new LinkedHashMap<>();
+      for (Team team : values()) {
+        Set<AnalysisInput> changes = team.takeChanges();
+        if (!changes.isEmpty()) {
+          teamChanges.put(team.getNumber(), changes);
+        }
+      }
+      analysis.scheduleEventRefresh(eventKey, teamChanges);
+      return change;
+    }
+
     @Override
     protected Team createValue(Integer key, Event.Rankings.Team data) {
       return new Team(eventKey, data);
@@ -3,13 +3,18 @@ package org.victorrobotics.devilscoutserver.tba;
 import org.victorrobotics.bluealliance.Endpoint;
 import org.victorrobotics.bluealliance.Team;
 import org.victorrobotics.devilscoutserver.analysis.AnalysisCache;
+import org.victorrobotics.devilscoutserver.analysis.AnalysisInput;
 import org.victorrobotics.devilscoutserver.cache.Cacheable;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
@@ -18,38 +23,44 @@ import com.fasterxml.jackson.annotation.JsonValue;
 public class TeamListCache
     extends BlueAllianceCache<String, List<Team.Simple>, TeamListCache.TeamList> {
   public class TeamInfo implements Cacheable<Team.Simple>, Comparable<TeamInfo> {
-    private final String eventKey;
     private final int number;
 
-    private String name;
-    private String location;
+    private String             name;
+    private String             location;
+    private Set<AnalysisInput> changes;
 
-    public TeamInfo(String eventKey, Team.Simple team) {
-      this.eventKey = eventKey;
+    public TeamInfo(Team.Simple team) {
       this.number = team.number();
+      this.changes = EnumSet.noneOf(AnalysisInput.class);
       update(team);
     }
 
+    // Synchronized with takeChanges, a refresh may run from a request too
     @Override
-    public boolean update(Team.Simple team) {
-      boolean changed = false;
+    public synchronized boolean update(Team.Simple team) {
+      boolean change = false;
 
       if (!Objects.equals(name, team.name())) {
         name = team.name();
-        changed = true;
+        changes.add(AnalysisInput.TEAM_NAME);
+        change = true;
       }
 
       String teamLocation = team.city() + ", " + team.province() + ", " + team.country();
       if (!Objects.equals(location, teamLocation)) {
         location = teamLocation;
-        changed = true;
+        changes.add(AnalysisInput.TEAM_LOCATION);
+        change = true;
       }
 
-      if (changed) {
-        analysisCache.scheduleRefresh(eventKey, number);
-      }
+      return change;
+    }
 
-      return changed;
+    // Collected by the team list, to schedule the whole event at once
+    synchronized Set<AnalysisInput> takeChanges() {
+      Set<AnalysisInput> taken = changes;
+      changes = EnumSet.noneOf(AnalysisInput.class);
+      return taken;
     }
 
     public int getNumber() {
@@ -84,8 +95,9 @@ public class TeamListCache
       update(teams);
     }
 
+    // One pass at a time, so each pass hands off the changes it made
     @Override
-    public boolean update(List<Team.Simple> teams) {
+    public synchronized boolean update(List<Team.Simple> teams) {
       boolean change = false;
       Collection<Integer> keys = new ArrayList<>();
       for (Team.Simple team : teams) {
@@ -93,7 +105,7 @@ public class TeamListCache
 
         TeamInfo info = teamMap.get(team.number());
         if (info == null) {
-          teamMap.put(team.number(), new TeamInfo(eventKey, team));
+          teamMap.put(team.number(), new TeamInfo(team));
           change = true;
         } else {
           change |= info.update(team);
@@ -102,11 +114,14 @@ public class TeamListCache
       change |= teamMap.keySet()
                        .retainAll(keys);
 
-      if (change) {
-        oprs.refresh(eventKey);
-        rankings.refresh(eventKey);
+      Map<Integer, Set<AnalysisInput>> teamChanges = new LinkedHashMap<>();
+      for (TeamInfo info : teamMap.values()) {
+        Set<AnalysisInput> changes = info.takeChanges();
+        if (!changes.isEmpty()) {
+          teamChanges.put(info.getNumber(), changes);
+        }
       }
-
+      analysisCache.scheduleEventRefresh(eventKey, teamChanges);
       return change;
     }
 
@@ -116,13 +131,9 @@ public class TeamListCache
     }
   }
 
-  private final OprsCache oprs;
-  private final RankingsCache rankings;
   private final AnalysisCache analysisCache;
 
-  public TeamListCache(OprsCache oprs, RankingsCache rankings, AnalysisCache analysisCache) {
-    this.oprs = oprs;
-    this.rankings = rankings;
+  public TeamListCache(AnalysisCache analysisCache) {
     this.analysisCache = analysisCache;
   }
 
@@ -0,0 +1,39 @@
+package org.victorrobotics.devilscoutserver.years._2024;
+
+import org.victorrobotics.devilscoutserver.analysis.TeamAggregates;
+import org.victorrobotics.devilscoutserver.analysis.aggregate.Histogram;
+import org.victorrobotics.devilscoutserver.analysis.aggregate.MatchCounts;
+import org.victorrobotics.devilscoutserver.analysis.aggregate.MatchMeans;
+import org.victorrobotics.devilscoutserver.analysis.aggregate.MatchModes;
+import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.DrivetrainType;
+import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.FinalStatus;
+import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.PickupLocation;
+import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.ScoreLocation;
+import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.StartPosition;
+
+final class CrescendoAggregates extends TeamAggregates {
+  final MatchMeans driveTeamCommunication   = new MatchMeans();
+  final MatchMeans driveTeamStrategy        = new MatchMeans();
+  final MatchMeans driveTeamAdaptability    = new MatchMeans();
+  final MatchMeans driveTeamProfessionalism = new MatchMeans();
+
+  final Histogram<DrivetrainType> drivetrain = new Histogram<>();
+  final Histogram<Integer>        weight     = new Histogram<>();
+  final Histogram<Integer>        size       = new Histogram<>();
+
+  final MatchMeans speed   = new MatchMeans();
+  final MatchMeans defense = new MatchMeans();
+
+  final MatchModes<StartPosition> autoStartPositions = new MatchModes<>();
+  final MatchMeans                autoNotes          = new MatchMeans();
+
+  final MatchMeans                  teleopCyclesPerMinute = new MatchMeans();
+  final MatchMeans                  teleopScoreAccuracy   = new MatchMeans();
+  final MatchCounts<ScoreLocation>  teleopScoreCounts     =
+      new MatchCounts<>(ScoreLocation.class);
+  final MatchCounts<PickupLocation> teleopPickupCounts    =
+      new MatchCounts<>(PickupLocation.class);
+
+  final MatchModes<FinalStatus> endgameStatus = new MatchModes<>();
+  final MatchModes<Boolean>     trap          = new MatchModes<>();
+}
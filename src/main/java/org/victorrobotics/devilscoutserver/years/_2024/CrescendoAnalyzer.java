@@ -1,7 +1,14 @@
 package org.victorrobotics.devilscoutserver.years._2024;
 
+import org.victorrobotics.bluealliance.Event.WinLossRecord;
 import org.victorrobotics.bluealliance.ScoreBreakdown.Crescendo2024;
+import org.victorrobotics.devilscoutserver.analysis.AnalysisInput;
 import org.victorrobotics.devilscoutserver.analysis.Analyzer;
+import org.victorrobotics.devilscoutserver.analysis.RankingModel;
+import org.victorrobotics.devilscoutserver.analysis.RankingRules;
+import org.victorrobotics.devilscoutserver.analysis.ScoreModel;
+import org.victorrobotics.devilscoutserver.analysis.aggregate.Metric;
+import org.victorrobotics.devilscoutserver.analysis.aggregate.Metrics;
 import org.victorrobotics.devilscoutserver.analysis.statistics.BooleanStatistic;
 import org.victorrobotics.devilscoutserver.analysis.statistics.NumberStatistic;
 import org.victorrobotics.devilscoutserver.analysis.statistics.OprStatistic;
@@ -11,8 +18,9 @@ import org.victorrobotics.devilscoutserver.analysis.statistics.RankingPointsStat
 import org.victorrobotics.devilscoutserver.analysis.statistics.StatisticsPage;
 import org.victorrobotics.devilscoutserver.analysis.statistics.StringStatistic;
 import org.victorrobotics.devilscoutserver.analysis.statistics.WltStatistic;
-import org.victorrobotics.devilscoutserver.database.DataEntry;
 import org.victorrobotics.devilscoutserver.database.EntryDatabase;
+import org.victorrobotics.devilscoutserver.database.EntryField;
+import org.victorrobotics.devilscoutserver.store.EntryRow;
 import org.victorrobotics.devilscoutserver.tba.MatchScheduleCache;
 import org.victorrobotics.devilscoutserver.tba.OprsCache;
 import org.victorrobotics.devilscoutserver.tba.RankingsCache;
@@ -22,93 +30,284 @@ import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.PickupLoca
 import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.ScoreLocation;
 import org.victorrobotics.devilscoutserver.years._2024.CrescendoEnums.StartPosition;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @SuppressWarnings("java:S1192") // repeating paths is more clear here
-public final class CrescendoAnalyzer extends Analyzer<Crescendo2024, CrescendoData> {
+public final class CrescendoAnalyzer extends Analyzer<Crescendo2024, CrescendoAggregates, CrescendoData> {
+  // Rank and team info are not displayed, so changes to them are ignored
+  private static final Set<AnalysisInput> INPUTS =
+      EnumSet.of(AnalysisInput.MATCH_ENTRIES, AnalysisInput.PIT_ENTRIES,
+                 AnalysisInput.DRIVE_TEAM_ENTRIES, AnalysisInput.SCORE_BREAKDOWN,
+                 AnalysisInput.OPR, AnalysisInput.DPR, AnalysisInput.CCWM,
+                 AnalysisInput.WIN_LOSS_RECORD);
+
+  // Auto notes are scored in the speaker, teleop notes mostly unamplified
+  private static final double AUTO_NOTE_POINTS   = 5;
+  private static final double TELEOP_NOTE_POINTS = 2;
+  private static final double TELEOP_MINUTES     = 2;
+  private static final double DEFAULT_VARIATION  = 0.3;
+
+  // Scouted note counts may miss official ones by this many, or this fraction
+  private static final int    NOTE_TOLERANCE          = 2;
+  private static final double RELATIVE_NOTE_TOLERANCE = 0.2;
+
+  // Coopertition only lowers the melody threshold, it isn't a ranking point itself
+  private static final RankingRules RANKING_RULES =
+      new RankingRules(2, 1, List.of("Melody Bonus", "Ensemble Bonus"));
+
+  private static final EntryField SPEED        = EntryField.of("/general/speed");
+  private static final EntryField DEFENSE      = EntryField.of("/general/defense");
+  private static final EntryField START_POS    = EntryField.of("/auto/start_pos");
+  private static final EntryField AUTO_ROUTINE = EntryField.of("/auto/routine");
+
+  private static final EntryField PICKUP_GROUND = EntryField.of("/teleop/pickup_ground");
+  private static final EntryField PICKUP_SOURCE = EntryField.of("/teleop/pickup_source");
+  private static final EntryField SCORE_SPEAKER = EntryField.of("/teleop/score_speaker");
+  private static final EntryField SCORE_AMP     = EntryField.of("/teleop/score_amp");
+
+  private static final EntryField FINAL_STATUS = EntryField.of("/endgame/status");
+  private static final EntryField TRAP         = EntryField.of("/endgame/trap");
+
+  private static final EntryField DRIVETRAIN = EntryField.of("/specs/drivetrain");
+  private static final EntryField WEIGHT     = EntryField.of("/specs/weight");
+  private static final EntryField SIZE       = EntryField.of("/specs/size");
+
+  private static final EntryField COMMUNICATION   = EntryField.of("/communication");
+  private static final EntryField STRATEGY        = EntryField.of("/strategy");
+  private static final EntryField ADAPTABILITY    = EntryField.of("/adaptability");
+  private static final EntryField PROFESSIONALISM = EntryField.of("/professionalism");
+
+  private static final Metrics<CrescendoAggregates> MATCH_METRICS =
+      Metrics.of(Metric.mean(SPEED, a -> a.speed), Metric.mean(DEFENSE, a -> a.defense),
+                 Metric.mode(START_POS, StartPosition::of, a -> a.autoStartPositions),
+                 Metric.mean(CrescendoAnalyzer::autoNoteCount, a -> a.autoNotes),
+                 CrescendoAnalyzer::addTeleop,
+                 Metric.mode(FINAL_STATUS, FinalStatus::of, a -> a.endgameStatus),
+                 Metric.flag(TRAP, a -> a.trap));
+
+  private static final Metrics<CrescendoAggregates> PIT_METRICS =
+      Metrics.of(Metric.histogram(DRIVETRAIN, DrivetrainType::of, a -> a.drivetrain),
+                 Metric.histogram(WEIGHT, Integer::valueOf, a -> a.weight),
+                 Metric.histogram(SIZE, Integer::valueOf, a -> a.size));
+
+  private static final Metrics<CrescendoAggregates> DRIVE_TEAM_METRICS =
+      Metrics.of(Metric.mean(COMMUNICATION, a -> a.driveTeamCommunication),
+                 Metric.mean(STRATEGY, a -> a.driveTeamStrategy),
+                 Metric.mean(ADAPTABILITY, a -> a.driveTeamAdaptability),
+                 Metric.mean(PROFESSIONALISM, a -> a.driveTeamProfessionalism));
+
   public CrescendoAnalyzer(EntryDatabase matchEntryDB, EntryDatabase pitEntryDB,
-                           EntryDatabase driveTeamEntryDB, MatchScheduleCache matchScheduleCache,
-                           OprsCache teamOprsCache, RankingsCache rankingsCache) {
-    super(matchEntryDB, pitEntryDB, driveTeamEntryDB, matchScheduleCache, teamOprsCache,
-          rankingsCache);
+                           EntryDatabase driveTeamEntryDB, CrescendoQuestions questions,
+                           MatchScheduleCache matchScheduleCache, OprsCache teamOprsCache,
+                           RankingsCache rankingsCache) {
+    super(matchEntryDB, pitEntryDB, driveTeamEntryDB, questions, matchScheduleCache,
+          teamOprsCache, rankingsCache, INPUTS);
   }
 
+  /**
+   * An entry is an outlier if it has a robot scoring more notes than its whole
+   * alliance did. When a team was scouted more than once and every team on the
+   * alliance has plausible entries, the breakdown also settles disagreements:
+   * entries that don't add up to the official counts are outliers if another
+   * entry for the same team does.
+   */
   @Override
-  protected boolean isValidMatchEntry(DataEntry matchEntry,
-                                      TeamScoreBreakdown<Crescendo2024> breakdown) {
-    return true;
+  protected Collection<EntryRow> findOutliers(Map<Integer, List<EntryRow>> entries,
+                                              Crescendo2024 breakdown) {
+    int[] official = officialNoteCounts(breakdown);
+    List<EntryRow> outliers = new ArrayList<>();
+    Map<Integer, List<int[]>> plausible = new LinkedHashMap<>();
+    Map<int[], EntryRow> rows = new IdentityHashMap<>();
+    for (Map.Entry<Integer, List<EntryRow>> team : entries.entrySet()) {
+      List<int[]> teamCounts = new ArrayList<>();
+      for (EntryRow entry : team.getValue()) {
+        int[] counts = noteCounts(entry);
+        if (exceedsAlliance(counts, official)) {
+          outliers.add(entry);
+        } else {
+          teamCounts.add(counts);
+          rows.put(counts, entry);
+        }
+      }
+      if (teamCounts.isEmpty()) return outliers;
+
+      plausible.put(team.getKey(), teamCounts);
+    }
+
+    for (Map.Entry<Integer, List<int[]>> team : plausible.entrySet()) {
+      if (team.getValue()
+              .size() < 2) {
+        continue;
+      }
+
+      double[] others = new double[official.length];
+      for (Map.Entry<Integer, List<int[]>> other : plausible.entrySet()) {
+        if (!other.getKey()
+                  .equals(team.getKey())) {
+          addMeans(others, other.getValue());
+        }
+      }
+
+      List<int[]> mismatched = new ArrayList<>();
+      for (int[] counts : team.getValue()) {
+        if (!matchesAlliance(others, counts, official)) {
+          mismatched.add(counts);
+        }
+      }
+      if (mismatched.size() < team.getValue()
+                                  .size()) {
+        for (int[] counts : mismatched) {
+          outliers.add(rows.get(counts));
+        }
+      }
+    }
+    return outliers;
+  }
+
+  /**
+   * An entry's error is how many notes the alliance would have been off by if
+   * its other teams scored their average scouted counts. Alliances with a team
+   * nobody scouted can't be judged.
+   */
+  @Override
+  protected Map<EntryRow, Double> scoutErrors(Map<Integer, List<EntryRow>> entries,
+                                              Crescendo2024 breakdown) {
+    int[] official = officialNoteCounts(breakdown);
+    Map<Integer, List<int[]>> teamCounts = new LinkedHashMap<>();
+    for (Map.Entry<Integer, List<EntryRow>> team : entries.entrySet()) {
+      if (team.getValue()
+              .isEmpty()) {
+        return Map.of();
+      }
+
+      List<int[]> counts = new ArrayList<>();
+      for (EntryRow entry : team.getValue()) {
+        counts.add(noteCounts(entry));
+      }
+      teamCounts.put(team.getKey(), counts);
+    }
+
+    Map<EntryRow, Double> errors = new LinkedHashMap<>();
+    for (Map.Entry<Integer, List<EntryRow>> team : entries.entrySet()) {
+      double[] others = new double[official.length];
+      for (Map.Entry<Integer, List<int[]>> other : teamCounts.entrySet()) {
+        if (!other.getKey()
+                  .equals(team.getKey())) {
+          addMeans(others, other.getValue());
+        }
+      }
+
+      List<int[]> counts = teamCounts.get(team.getKey());
+      for (int i = 0; i < counts.size(); i++) {
+        double error = 0;
+        boolean judged = false;
+        int[] entryCounts = counts.get(i);
+        for (int j = 0; j < official.length; j++) {
+          if (entryCounts[j] != EntryField.MISSING && !Double.isNaN(others[j])) {
+            error += others[j] + entryCounts[j] - official[j];
+            judged = true;
+          }
+        }
+        if (judged) {
+          errors.put(team.getValue()
+                         .get(i),
+                     error);
+        }
+      }
+    }
+    return errors;
+  }
+
+  @Override
+  protected CrescendoAggregates createAggregates() {
+    return new CrescendoAggregates();
+  }
+
+  @Override
+  protected void addMatchEntry(CrescendoAggregates aggregates, EntryRow matchEntry,
+                               double weight) {
+    MATCH_METRICS.accept(aggregates, matchEntry, weight);
+  }
+
+  @Override
+  protected void addPitEntry(CrescendoAggregates aggregates, EntryRow pitEntry) {
+    PIT_METRICS.accept(aggregates, pitEntry);
+  }
+
+  @Override
+  protected void addDriveTeamEntry(CrescendoAggregates aggregates, EntryRow driveTeamEntry) {
+    DRIVE_TEAM_METRICS.accept(aggregates, driveTeamEntry);
+  }
+
+  @Override
+  protected void mergeAggregates(CrescendoAggregates into, CrescendoAggregates from) {
+    into.driveTeamCommunication.merge(from.driveTeamCommunication);
+    into.driveTeamStrategy.merge(from.driveTeamStrategy);
+    into.driveTeamAdaptability.merge(from.driveTeamAdaptability);
+    into.driveTeamProfessionalism.merge(from.driveTeamProfessionalism);
+
+    into.drivetrain.merge(from.drivetrain);
+    into.weight.merge(from.weight);
+    into.size.merge(from.size);
+
+    into.speed.merge(from.speed);
+    into.defense.merge(from.defense);
+
+    into.autoStartPositions.merge(from.autoStartPositions);
+    into.autoNotes.merge(from.autoNotes);
+
+    into.teleopCyclesPerMinute.merge(from.teleopCyclesPerMinute);
+    into.teleopScoreAccuracy.merge(from.teleopScoreAccuracy);
+    into.teleopScoreCounts.merge(from.teleopScoreCounts);
+    into.teleopPickupCounts.merge(from.teleopPickupCounts);
+
+    into.endgameStatus.merge(from.endgameStatus);
+    into.trap.merge(from.trap);
   }
 
   @Override
   protected CrescendoData computeData(Data inputs) {
+    CrescendoAggregates aggregates = inputs.getAggregates();
     return new CrescendoData(mapSingle(inputs.getRankings(), RankingsCache.Team::getWinLossRecord),
-                             Map.of("Melody Bonus", count(
-                                                          map(inputs.getScoreBreakdowns(),
-                                                              b -> b.breakdown()
-                                                                    .melodyBonusAchieved()),
-                                                          b -> b),
-                                    "Ensemble Bonus", count(
-                                                            map(inputs.getScoreBreakdowns(),
-                                                                b -> b.breakdown()
-                                                                      .ensembleBonusAchieved()),
-                                                            b -> b),
-                                    "Coopertition Bonus", count(
-                                                                map(inputs.getScoreBreakdowns(),
-                                                                    b -> b.breakdown()
-                                                                          .coopertitionBonusAchieved()),
-                                                                b -> b)),
-                             inputs.getOpr(),
-                             average(extractMergeData(inputs.getDriveTeamEntries(),
-                                                      "/communication", DataEntry::getInteger,
-                                                      Analyzer::average)),
-                             average(extractMergeData(inputs.getDriveTeamEntries(), "/strategy",
-                                                      DataEntry::getInteger, Analyzer::average)),
-                             average(extractMergeData(inputs.getDriveTeamEntries(), "/adaptability",
-                                                      DataEntry::getInteger, Analyzer::average)),
-                             average(extractMergeData(inputs.getDriveTeamEntries(),
-                                                      "/professionalism", DataEntry::getInteger,
-                                                      Analyzer::average)),
-                             mostCommon(map(extractData(inputs.getPitEntries(), "/specs/drivetrain",
-                                                        DataEntry::getInteger),
-                                            DrivetrainType::of)),
-                             mostCommon(extractData(inputs.getPitEntries(), "/specs/weight",
-                                                    DataEntry::getInteger)),
-                             mostCommon(extractData(inputs.getPitEntries(), "/specs/size",
-                                                    DataEntry::getInteger)),
-                             average(extractMergeData(inputs.getMatchEntries(), "/general/speed",
-                                                      DataEntry::getInteger, Analyzer::average)),
-                             average(extractMergeData(inputs.getMatchEntries(), "/general/defense",
-                                                      DataEntry::getInteger, Analyzer::average)),
-                             countDistinct(map(extractMergeData(inputs.getMatchEntries(),
-                                                                "/auto/start_pos",
-                                                                DataEntry::getInteger,
-                                                                Analyzer::mostCommon),
-                                               StartPosition::of)),
-                             summarizeNumbers(extractMergeData(inputs.getMatchEntries(),
-                                                               CrescendoAnalyzer::autoNoteCount,
-                                                               Analyzer::average)),
-                             summarizeNumbers(extractMergeData(inputs.getMatchEntries(),
-                                                               CrescendoAnalyzer::teleopCyclesPerMinute,
-                                                               Analyzer::average)),
-                             average(extractMergeData(inputs.getMatchEntries(),
-                                                      CrescendoAnalyzer::teleopScoreAccuracy,
-                                                      Analyzer::average)),
-                             sumCounts(extractMergeData(inputs.getMatchEntries(),
-                                                        CrescendoAnalyzer::teleopScoreLocations,
-                                                        Analyzer::averageCounts)),
-                             sumCounts(extractMergeData(inputs.getMatchEntries(),
-                                                        CrescendoAnalyzer::teleopPickupLocations,
-                                                        Analyzer::averageCounts)),
-                             countDistinct(map(extractMergeData(inputs.getMatchEntries(),
-                                                                "/auto/start_pos",
-                                                                DataEntry::getInteger,
-                                                                Analyzer::mostCommon),
-                                               FinalStatus::of)),
-                             average(map(extractMergeData(inputs.getMatchEntries(), "/endgame/trap",
-                                                          DataEntry::getBoolean,
-                                                          Analyzer::mostCommon),
-                                         b -> b ? 1 : 0)));
+                             Map.of("Melody Bonus",
+                                    count(inputs.getScoreBreakdowns(),
+                                          b -> b.breakdown()
+                                                .melodyBonusAchieved()),
+                                    "Ensemble Bonus",
+                                    count(inputs.getScoreBreakdowns(),
+                                          b -> b.breakdown()
+                                                .ensembleBonusAchieved()),
+                                    "Coopertition Bonus",
+                                    count(inputs.getScoreBreakdowns(),
+                                          b -> b.breakdown()
+                                                .coopertitionBonusAchieved())),
+                             inputs.getOpr(), aggregates.driveTeamCommunication.average(),
+                             aggregates.driveTeamStrategy.average(),
+                             aggregates.driveTeamAdaptability.average(),
+                             aggregates.driveTeamProfessionalism.average(),
+                             aggregates.drivetrain.mode(), aggregates.weight.mode(),
+                             aggregates.size.mode(), aggregates.speed.average(),
+                             aggregates.defense.average(),
+                             aggregates.autoStartPositions.modes()
+                                                          .counts(),
+                             aggregates.autoNotes.stats()
+                                                 .summary(),
+                             aggregates.teleopCyclesPerMinute.stats()
+                                                             .summary(),
+                             aggregates.teleopScoreAccuracy.average(),
+                             aggregates.teleopScoreCounts.totals(),
+                             aggregates.teleopPickupCounts.totals(),
+                             aggregates.endgameStatus.modes()
+                                                     .counts(),
+                             aggregates.trap.modes()
+                                            .fraction(Boolean.TRUE));
   }
 
   @Override
@@ -143,6 +342,78 @@ public final class CrescendoAnalyzer extends Analyzer<Crescendo2024, CrescendoDa
                                               new BooleanStatistic("Trap Rate", data.trapRate()))));
   }
 
+  @Override
+  protected Map<String, Double> rankedMetrics(CrescendoData data) {
+    return nullableMap(List.of(nullableMapEntry("Speed", data.speed()),
+                               nullableMapEntry("Note Count", data.autoNotes()
+                                                                  .mean()),
+                               nullableMapEntry("Defense", data.defense()),
+                               nullableMapEntry("Cycles per Minute",
+                                                data.teleopCyclesPerMinute()
+                                                    .mean()),
+                               nullableMapEntry("Score Accuracy", data.teleopScoreAccuracy()),
+                               nullableMapEntry("Trap Rate", data.trapRate())));
+  }
+
+  /**
+   * Centered on OPR when available, otherwise on scouted note counts. The
+   * spread comes from how much the team's scouted note counts vary.
+   */
+  @Override
+  protected ScoreModel scoreModel(CrescendoData data) {
+    Double autoNotes = data.autoNotes()
+                           .mean();
+    Double cycles = data.teleopCyclesPerMinute()
+                        .mean();
+
+    double scouted = Double.NaN;
+    double scoutedStddev = Double.NaN;
+    if (autoNotes != null && cycles != null) {
+      scouted = AUTO_NOTE_POINTS * autoNotes + TELEOP_NOTE_POINTS * TELEOP_MINUTES * cycles;
+      double autoStddev = AUTO_NOTE_POINTS * data.autoNotes()
+                                                 .stddev();
+      double teleopStddev = TELEOP_NOTE_POINTS * TELEOP_MINUTES * data.teleopCyclesPerMinute()
+                                                                      .stddev();
+      scoutedStddev = Math.sqrt(autoStddev * autoStddev + teleopStddev * teleopStddev);
+    }
+
+    double opr = data.opr() == null ? Double.NaN
+        : data.opr()
+              .getOpr();
+    double mean = Double.isFinite(opr) ? opr : scouted;
+    if (!Double.isFinite(mean)) return null;
+
+    mean = Math.max(mean, 0);
+    double variation = scouted > 0 ? scoutedStddev / scouted : DEFAULT_VARIATION;
+    return new ScoreModel(mean, mean * variation);
+  }
+
+  @Override
+  protected RankingRules rankingRules() {
+    return RANKING_RULES;
+  }
+
+  @Override
+  protected RankingModel rankingModel(CrescendoData data) {
+    WinLossRecord wlt = data.wlt();
+    if (wlt == null) return null;
+
+    int played = wlt.wins() + wlt.losses() + wlt.ties();
+    int rankingPoints = RANKING_RULES.winPoints() * wlt.wins()
+        + RANKING_RULES.tiePoints() * wlt.ties();
+    List<String> bonuses = RANKING_RULES.bonuses();
+    double[] bonusRates = played == 0 ? null : new double[bonuses.size()];
+    for (int i = 0; i < bonuses.size(); i++) {
+      int achieved = data.rankingPoints()
+                         .getOrDefault(bonuses.get(i), 0);
+      rankingPoints += achieved;
+      if (bonusRates != null) {
+        bonusRates[i] = Math.min(1, (double) achieved / played);
+      }
+    }
+    return new RankingModel(rankingPoints, played, bonusRates);
+  }
+
   private static RadarStatistic driveTeamRadar(CrescendoData data) {
     return new RadarStatistic("Drive Team", 5,
                               nullableMap(List.of(nullableMapEntry("Communication",
@@ -155,69 +426,102 @@ public final class CrescendoAnalyzer extends Analyzer<Crescendo2024, CrescendoDa
                                                                    data.driveTeamProfessionalism()))));
   }
 
-  private static Integer autoNoteCount(DataEntry match) {
-    List<Integer> actions = match.getIntegers("/auto/routine");
+  // Auto notes, teleop speaker notes and teleop amp notes
+  private static int[] officialNoteCounts(Crescendo2024 breakdown) {
+    return new int[] { breakdown.autoSpeakerNoteCount() + breakdown.autoAmpNoteCount(),
+                       breakdown.teleopSpeakerNoteCount()
+                           + breakdown.teleopSpeakerNoteAmplifiedCount(),
+                       breakdown.teleopAmpNoteCount() };
+  }
+
+  private static int[] noteCounts(EntryRow matchEntry) {
+    return new int[] { autoNoteCount(matchEntry), SCORE_SPEAKER.getInt(matchEntry),
+                       SCORE_AMP.getInt(matchEntry) };
+  }
+
+  private static int noteTolerance(int official) {
+    return Math.max(NOTE_TOLERANCE, (int) Math.round(official * RELATIVE_NOTE_TOLERANCE));
+  }
+
+  private static boolean exceedsAlliance(int[] counts, int[] official) {
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] == EntryField.MISSING) continue;
+
+      if (counts[i] > official[i] + noteTolerance(official[i])) return true;
+    }
+    return false;
+  }
+
+  // Missing counts make the sum unknown, so they never mismatch
+  private static void addMeans(double[] sums, List<int[]> teamCounts) {
+    for (int i = 0; i < sums.length; i++) {
+      double sum = 0;
+      for (int[] counts : teamCounts) {
+        sum += counts[i] == EntryField.MISSING ? Double.NaN : counts[i];
+      }
+      sums[i] += sum / teamCounts.size();
+    }
+  }
+
+  private static boolean matchesAlliance(double[] others, int[] counts, int[] official) {
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] == EntryField.MISSING || Double.isNaN(others[i])) continue;
+
+      if (Math.abs(others[i] + counts[i] - official[i]) > noteTolerance(official[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int autoNoteCount(EntryRow match) {
+    int length = AUTO_ROUTINE.getLength(match);
+    if (length == -1) return EntryField.MISSING;
+
     int scoreCount = 0;
-    for (Integer action : actions) {
-      switch (action) {
+    for (int i = 0; i < length; i++) {
+      switch (AUTO_ROUTINE.getInt(match, i)) {
         case 0, 1:
           scoreCount++;
           break;
         case 2, 3:
           break;
         default:
-          return null;
+          return EntryField.MISSING;
       }
     }
     // People often forget to click 'pickup note', so don't filter by pickups
     return scoreCount;
   }
 
-  private static Double teleopCyclesPerMinute(DataEntry match) {
-    // We are assuming 2 minutes of play time
-    return (match.getInteger("/teleop/score_amp") + match.getInteger("/teleop/score_speaker"))
-        / 2.0;
-  }
+  // The teleop metrics share their four counts, so they are read together
+  private static void addTeleop(CrescendoAggregates aggregates, String matchKey,
+                                EntryRow matchEntry, double weight) {
+    int groundPickups = PICKUP_GROUND.getInt(matchEntry);
+    int sourcePickups = PICKUP_SOURCE.getInt(matchEntry);
+    int speakerScores = SCORE_SPEAKER.getInt(matchEntry);
+    int ampScores = SCORE_AMP.getInt(matchEntry);
 
-  private static Double teleopScoreAccuracy(DataEntry match) {
-    Integer sourcePickups = match.getInteger("/teleop/pickup_source");
-    Integer groundPickups = match.getInteger("/teleop/pickup_ground");
-
-    int attempts = 0;
-    if (sourcePickups != null) {
-      attempts += sourcePickups;
-    }
-    if (groundPickups != null) {
-      attempts += groundPickups;
+    if (speakerScores != EntryField.MISSING && ampScores != EntryField.MISSING) {
+      // We are assuming 2 minutes of play time
+      aggregates.teleopCyclesPerMinute.add(matchKey, (speakerScores + ampScores) / 2.0, weight);
     }
 
-    if (attempts == 0) return null;
-
-    Integer speakerScores = match.getInteger("/teleop/score_speaker");
-    Integer ampScores = match.getInteger("/teleop/score_amp");
-
-    if (speakerScores == null && ampScores == null) {
-      return null;
-    }
-
-    int scores = 0;
-    if (speakerScores != null) {
-      scores += speakerScores;
+    int attempts = orZero(sourcePickups) + orZero(groundPickups);
+    boolean anyScores = speakerScores != EntryField.MISSING || ampScores != EntryField.MISSING;
+    if (attempts != 0 && anyScores) {
+      int scores = orZero(speakerScores) + orZero(ampScores);
+      aggregates.teleopScoreAccuracy.add(matchKey, Math.clamp((double) scores / attempts, 0, 1),
+                                         weight);
     }
-    if (ampScores != null) {
-      scores += ampScores;
-    }
-
-    return Math.clamp((double) scores / attempts, 0, 1);
-  }
 
-  private static Map<ScoreLocation, Integer> teleopScoreLocations(DataEntry match) {
-    return Map.of(ScoreLocation.SPEAKER, match.getInteger("/teleop/score_speaker"),
-                  ScoreLocation.AMP, match.getInteger("/teleop/score_amp"));
+    aggregates.teleopScoreCounts.add(matchKey, ScoreLocation.SPEAKER, speakerScores,
+                                     ScoreLocation.AMP, ampScores);
+    aggregates.teleopPickupCounts.add(matchKey, PickupLocation.GROUND, groundPickups,
+                                      PickupLocation.SOURCE, sourcePickups);
   }
 
-  private static Map<PickupLocation, Integer> teleopPickupLocations(DataEntry match) {
-    return Map.of(PickupLocation.GROUND, match.getInteger("/teleop/pickup_ground"),
-                  PickupLocation.SOURCE, match.getInteger("/teleop/pickup_source"));
+  private static int orZero(int value) {
+    return value == EntryField.MISSING ? 0 : value;
   }
 }
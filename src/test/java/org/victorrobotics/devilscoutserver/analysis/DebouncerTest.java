@@ -0,0 +1,80 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class DebouncerTest {
+  private static final long DELAY_MILLIS = 100;
+
+  @Test
+  void releasesKeyAfterDelay() throws InterruptedException {
+    Debouncer<String> debouncer = new Debouncer<>(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    long start = System.nanoTime();
+    assertTrue(debouncer.schedule("a"));
+    assertFalse(debouncer.schedule("a"));
+    assertEquals(1, debouncer.size());
+
+    assertEquals("a", debouncer.take());
+    assertTrue(elapsedMillis(start) >= DELAY_MILLIS);
+    assertEquals(0, debouncer.size());
+  }
+
+  @Test
+  void rescheduleDiscardsStaleToken() throws InterruptedException {
+    Debouncer<String> debouncer = new Debouncer<>(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    long start = System.nanoTime();
+    debouncer.schedule("a");
+    Thread.sleep(DELAY_MILLIS / 2);
+    debouncer.schedule("a");
+    debouncer.schedule("b");
+
+    // The first token for a is due first, but no longer matches its deadline
+    assertEquals("a", debouncer.take());
+    assertTrue(elapsedMillis(start) >= DELAY_MILLIS * 3 / 2);
+    assertEquals("b", debouncer.take());
+    assertEquals(0, debouncer.size());
+  }
+
+  @Test
+  void expediteReleasesMatchingKeysOnly() throws InterruptedException {
+    Debouncer<String> debouncer = new Debouncer<>(1, TimeUnit.HOURS);
+    debouncer.scheduleAll(List.of("a", "b"));
+
+    assertEquals(1, debouncer.expedite("a"::equals));
+    assertEquals(0, debouncer.expedite("c"::equals));
+    assertEquals("a", debouncer.take());
+    assertEquals(1, debouncer.size());
+  }
+
+  @Test
+  void expeditedKeyIsNotReleasedTwice() throws InterruptedException {
+    Debouncer<String> debouncer = new Debouncer<>(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    debouncer.schedule("a");
+    debouncer.expedite("a"::equals);
+    assertEquals("a", debouncer.take());
+
+    // The original token for a is still queued, and must be skipped
+    debouncer.schedule("b");
+    assertEquals("b", debouncer.take());
+    assertEquals(0, debouncer.size());
+  }
+
+  @Test
+  void scheduleAllCountsNewKeys() {
+    Debouncer<String> debouncer = new Debouncer<>(1, TimeUnit.HOURS);
+    debouncer.schedule("a");
+
+    assertEquals(2, debouncer.scheduleAll(List.of("a", "b", "c")));
+    assertEquals(3, debouncer.size());
+  }
+
+  private static long elapsedMillis(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
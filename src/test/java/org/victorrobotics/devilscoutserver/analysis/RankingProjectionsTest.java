@@ -0,0 +1,54 @@
+package org.victorrobotics.devilscoutserver.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.victorrobotics.devilscoutserver.analysis.RankingProjections.sortKey;
+import static org.victorrobotics.devilscoutserver.analysis.RankingProjections.teamOf;
+
+import org.junit.jupiter.api.Test;
+
+class RankingProjectionsTest {
+  private static final int MAX_TEAM     = (1 << 11) - 1;
+  private static final int MAX_TIEBREAK = (1 << 20) - 1;
+
+  @Test
+  void teamSurvivesPacking() {
+    assertEquals(0, teamOf(sortKey(30, 12, MAX_TIEBREAK, 0)));
+    assertEquals(MAX_TEAM, teamOf(sortKey(30, 12, MAX_TIEBREAK, MAX_TEAM)));
+    assertEquals(MAX_TEAM, teamOf(sortKey(0, 0, 0, MAX_TEAM)));
+  }
+
+  @Test
+  void averageOutranksTiebreakAndIndex() {
+    long higher = sortKey(10, 5, 0, 0);
+    long lower = sortKey(9, 5, MAX_TIEBREAK, MAX_TEAM);
+    assertTrue(higher > lower);
+  }
+
+  @Test
+  void tiebreakOutranksIndex() {
+    long higher = sortKey(6, 3, 2, 0);
+    long lower = sortKey(6, 3, 1, MAX_TEAM);
+    assertTrue(higher > lower);
+  }
+
+  @Test
+  void comparesAveragesAcrossMatchCounts() {
+    // 7 in 3 matches is a better average than 2 in 1
+    assertTrue(sortKey(7, 3, 0, 0) > sortKey(2, 1, 0, 0));
+    // Averages are scaled before dividing, so close ones stay apart
+    assertTrue(sortKey(200_001, 100_000, 0, 0) > sortKey(2, 1, MAX_TIEBREAK, MAX_TEAM));
+  }
+
+  @Test
+  void teamsWithoutMatchesAverageZero() {
+    assertEquals(sortKey(0, 1, 5, 7), sortKey(12, 0, 5, 7));
+  }
+
+  @Test
+  void largeAveragesDontOverflow() {
+    long key = sortKey(4000 * 12, 12, MAX_TIEBREAK, MAX_TEAM);
+    assertTrue(key > 0);
+    assertTrue(key > sortKey(3999 * 12, 12, MAX_TIEBREAK, MAX_TEAM));
+  }
+}
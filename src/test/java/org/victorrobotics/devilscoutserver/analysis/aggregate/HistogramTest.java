@@ -0,0 +1,65 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+  @Test
+  void modeResolvesTiesToSmallest() {
+    Histogram<Integer> histogram = of(5, 3, 5, 3, 9);
+
+    assertEquals(Integer.valueOf(3), histogram.mode());
+    assertEquals(2, histogram.count(5));
+    assertEquals(0, histogram.count(4));
+    assertEquals(5, histogram.total());
+    assertEquals(0.4, histogram.fraction(3), 1e-9);
+  }
+
+  @Test
+  void removeThenAddRestoresCounts() {
+    Histogram<Integer> histogram = of(1, 2, 2);
+    Map<Integer, Integer> before = histogram.counts();
+
+    histogram.remove(1);
+    assertEquals(List.of(2), List.copyOf(histogram.counts()
+                                                  .keySet()));
+    histogram.add(1);
+    assertEquals(before, histogram.counts());
+
+    histogram.remove(7);
+    assertEquals(3, histogram.total());
+  }
+
+  @Test
+  void mergeSumsCounts() {
+    Histogram<Integer> histogram = of(1, 4);
+    histogram.merge(of(4, 2, 8, 6, 2));
+
+    assertEquals(Map.of(1, 1, 2, 2, 4, 2, 6, 1, 8, 1), histogram.counts());
+    assertEquals(List.of(1, 2, 4, 6, 8), List.copyOf(histogram.counts()
+                                                              .keySet()));
+    assertEquals(Integer.valueOf(2), histogram.mode());
+  }
+
+  @Test
+  void emptyHasNoMode() {
+    Histogram<Integer> histogram = of(1);
+    histogram.remove(1);
+
+    assertNull(histogram.mode());
+    assertNull(histogram.fraction(1));
+  }
+
+  private static Histogram<Integer> of(int... values) {
+    Histogram<Integer> histogram = new Histogram<>();
+    for (int value : values) {
+      histogram.add(value);
+    }
+    return histogram;
+  }
+}
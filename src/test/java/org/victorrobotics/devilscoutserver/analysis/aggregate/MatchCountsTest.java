@@ -0,0 +1,54 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.victorrobotics.devilscoutserver.database.EntryField;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MatchCountsTest {
+  private enum Location {
+    NEAR,
+    FAR,
+    UNUSED;
+  }
+
+  @Test
+  void averagesWithinMatchesThenSums() {
+    MatchCounts<Location> counts = new MatchCounts<>(Location.class);
+    counts.add("qm1", Location.NEAR, 3, Location.FAR, 1);
+    counts.add("qm1", Location.NEAR, 5, Location.FAR, 2);
+    counts.add("qm2", Location.NEAR, 2, Location.FAR, 0);
+
+    // qm1 rounds to 4 and 2 (1.5 rounds up), qm2 adds 2 and 0
+    assertEquals(Map.of(Location.NEAR, 6, Location.FAR, 2), counts.totals());
+  }
+
+  @Test
+  void missingCountsStillCountTheEntry() {
+    MatchCounts<Location> counts = new MatchCounts<>(Location.class);
+    counts.add("qm1", Location.NEAR, 4, Location.FAR, EntryField.MISSING);
+    counts.add("qm1", Location.NEAR, EntryField.MISSING, Location.FAR, EntryField.MISSING);
+
+    assertEquals(Map.of(Location.NEAR, 2), counts.totals());
+  }
+
+  @Test
+  void mergeMatchesAddingDirectly() {
+    MatchCounts<Location> direct = new MatchCounts<>(Location.class);
+    direct.add("qm1", Location.NEAR, 1, Location.FAR, 4);
+    direct.add("qm1", Location.NEAR, 2, Location.FAR, 1);
+    direct.add("qm2", Location.NEAR, 7, Location.FAR, EntryField.MISSING);
+
+    MatchCounts<Location> merged = new MatchCounts<>(Location.class);
+    merged.add("qm1", Location.NEAR, 1, Location.FAR, 4);
+    MatchCounts<Location> other = new MatchCounts<>(Location.class);
+    other.add("qm1", Location.NEAR, 2, Location.FAR, 1);
+    other.add("qm2", Location.NEAR, 7, Location.FAR, EntryField.MISSING);
+    merged.merge(other);
+
+    assertEquals(direct.totals(), merged.totals());
+  }
+}
@@ -0,0 +1,86 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.victorrobotics.devilscoutserver.analysis.data.NumberSummary;
+
+import org.junit.jupiter.api.Test;
+
+class MatchMeansTest {
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  void averagesWithinMatchesFirst() {
+    MatchMeans means = new MatchMeans();
+    means.add("qm1", 2);
+    means.add("qm1", 4);
+    means.add("qm2", 9);
+
+    // Per-match averages 3 and 9
+    assertEquals(6, means.average(), EPSILON);
+    NumberSummary summary = means.stats()
+                                 .summary();
+    assertEquals(2, summary.count());
+    assertEquals(3, summary.min(), EPSILON);
+    assertEquals(9, summary.max(), EPSILON);
+  }
+
+  @Test
+  void addingToMatchSwapsItsAverage() {
+    MatchMeans means = new MatchMeans();
+    means.add("qm1", 1);
+    means.add("qm2", 5);
+    means.add("qm1", 3);
+
+    NumberSummary summary = means.stats()
+                                 .summary();
+    assertEquals(2, summary.count());
+    // The stale average of 1 was removed, not left behind as a minimum
+    assertEquals(2, summary.min(), EPSILON);
+    assertEquals(5, summary.max(), EPSILON);
+    assertEquals(3.5, summary.mean(), EPSILON);
+  }
+
+  @Test
+  void weightsOnlyMatterWithinMatches() {
+    MatchMeans means = new MatchMeans();
+    means.add("qm1", 0, 1);
+    means.add("qm1", 6, 2);
+    means.add("qm2", 10, 0.5);
+
+    assertEquals(7, means.average(), EPSILON);
+  }
+
+  @Test
+  void mergeMatchesAddingDirectly() {
+    MatchMeans direct = new MatchMeans();
+    direct.add("qm1", 2);
+    direct.add("qm1", 6);
+    direct.add("qm2", 3);
+
+    MatchMeans merged = new MatchMeans();
+    merged.add("qm1", 2);
+    MatchMeans other = new MatchMeans();
+    other.add("qm1", 6);
+    other.add("qm2", 3);
+    merged.merge(other);
+
+    NumberSummary expected = direct.stats()
+                                   .summary();
+    NumberSummary actual = merged.stats()
+                                 .summary();
+    assertEquals(expected.count(), actual.count());
+    assertEquals(expected.min(), actual.min(), EPSILON);
+    assertEquals(expected.max(), actual.max(), EPSILON);
+    assertEquals(expected.mean(), actual.mean(), EPSILON);
+  }
+
+  @Test
+  void emptyHasNoAverage() {
+    MatchMeans means = new MatchMeans();
+    means.add("qm1", (Number) null);
+
+    assertNull(means.average());
+  }
+}
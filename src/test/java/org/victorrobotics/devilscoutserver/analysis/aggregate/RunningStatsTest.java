@@ -0,0 +1,94 @@
+package org.victorrobotics.devilscoutserver.analysis.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.victorrobotics.devilscoutserver.analysis.data.NumberSummary;
+
+import org.junit.jupiter.api.Test;
+
+class RunningStatsTest {
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  void summarizesValues() {
+    RunningStats stats = of(4, 1, 3, 2);
+
+    NumberSummary summary = stats.summary();
+    assertEquals(4, summary.count());
+    assertEquals(1, summary.min(), EPSILON);
+    assertEquals(4, summary.max(), EPSILON);
+    assertEquals(2.5, summary.mean(), EPSILON);
+    assertEquals(Math.sqrt(1.25), summary.stddev(), EPSILON);
+  }
+
+  @Test
+  void removeThenAddRestoresSummary() {
+    RunningStats stats = of(1, 5, 5, 9);
+    NumberSummary before = stats.summary();
+
+    stats.remove(5);
+    stats.add(5);
+    assertSummary(before, stats.summary());
+
+    // Removing an extreme exposes the next one, and adding it back restores it
+    stats.remove(9);
+    assertEquals(5, stats.summary()
+                         .max(),
+                 EPSILON);
+    stats.add(9);
+    assertSummary(before, stats.summary());
+  }
+
+  @Test
+  void removeMatchesAddInAnyOrder() {
+    RunningStats stats = of(2, 7, 3);
+    stats.remove(7);
+    stats.remove(2);
+    stats.remove(3);
+
+    assertEquals(0, stats.count());
+    assertNull(stats.mean());
+    assertSame(NumberSummary.NO_DATA, stats.summary());
+  }
+
+  @Test
+  void removeIgnoresUnknownValues() {
+    RunningStats stats = of(1, 2);
+    NumberSummary before = stats.summary();
+
+    stats.remove(3);
+    assertSummary(before, stats.summary());
+  }
+
+  @Test
+  void growsPastInitialCapacity() {
+    RunningStats stats = new RunningStats();
+    for (int i = 100; i > 0; i--) {
+      stats.add(i);
+    }
+
+    NumberSummary summary = stats.summary();
+    assertEquals(100, summary.count());
+    assertEquals(1, summary.min(), EPSILON);
+    assertEquals(100, summary.max(), EPSILON);
+    assertEquals(50.5, summary.mean(), EPSILON);
+  }
+
+  private static RunningStats of(double... values) {
+    RunningStats stats = new RunningStats();
+    for (double value : values) {
+      stats.add(value);
+    }
+    return stats;
+  }
+
+  private static void assertSummary(NumberSummary expected, NumberSummary actual) {
+    assertEquals(expected.count(), actual.count());
+    assertEquals(expected.min(), actual.min(), EPSILON);
+    assertEquals(expected.max(), actual.max(), EPSILON);
+    assertEquals(expected.mean(), actual.mean(), EPSILON);
+    assertEquals(expected.stddev(), actual.stddev(), EPSILON);
+  }
+}
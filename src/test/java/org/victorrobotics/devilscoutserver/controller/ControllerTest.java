@@ -0,0 +1,34 @@
+package org.victorrobotics.devilscoutserver.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ControllerTest {
+  @Test
+  void acceptsGzipByNameOrWildcard() {
+    assertTrue(Controller.acceptsGzip("gzip"));
+    assertTrue(Controller.acceptsGzip("deflate, GZIP ; q=0.5"));
+    assertTrue(Controller.acceptsGzip("x-gzip"));
+    assertTrue(Controller.acceptsGzip("br, *"));
+  }
+
+  @Test
+  void honoursZeroQValues() {
+    assertFalse(Controller.acceptsGzip("gzip;q=0"));
+    assertFalse(Controller.acceptsGzip("deflate, gzip;q=0.0"));
+    assertFalse(Controller.acceptsGzip("*;q=0"));
+    // An explicit refusal overrides the wildcard
+    assertFalse(Controller.acceptsGzip("gzip;q=0, *"));
+  }
+
+  @Test
+  void rejectsOtherCodings() {
+    assertFalse(Controller.acceptsGzip(null));
+    assertFalse(Controller.acceptsGzip(""));
+    assertFalse(Controller.acceptsGzip("br, deflate"));
+    assertFalse(Controller.acceptsGzip("notgzip"));
+    assertFalse(Controller.acceptsGzip("gzip;q=invalid"));
+  }
+}
@@ -0,0 +1,137 @@
+package org.victorrobotics.devilscoutserver.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.victorrobotics.devilscoutserver.database.DataEntry;
+import org.victorrobotics.devilscoutserver.database.EntryField;
+import org.victorrobotics.devilscoutserver.questions.BooleanQuestion;
+import org.victorrobotics.devilscoutserver.questions.CounterQuestion;
+import org.victorrobotics.devilscoutserver.questions.MultipleChoiceQuestion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+class EntryTableTest {
+  private static final String EVENT_KEY = "2024vaash";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final EntrySchema SCHEMA =
+      EntrySchema.of(List.of(new CounterQuestion("Count", "count"),
+                             new BooleanQuestion("Flag", "flag"),
+                             new MultipleChoiceQuestion("Picks", "picks",
+                                                        new String[] { "A", "B", "C" })));
+
+  private static final int COUNT = SCHEMA.indexOf("/count");
+  private static final int FLAG  = SCHEMA.indexOf("/flag");
+  private static final int PICKS = SCHEMA.indexOf("/picks");
+
+  @Test
+  void appendDecodesColumns() throws JsonProcessingException {
+    EntryTable table = new EntryTable(EVENT_KEY, SCHEMA);
+    EntryRow full =
+        table.append(entry("1", "qm1", "alice", "{\"count\":4,\"flag\":true,\"picks\":[0,2]}"));
+    EntryRow empty = table.append(entry("2", "qm1", "bob", "{\"picks\":1}"));
+
+    assertEquals(4, table.getInt(full.index(), COUNT));
+    assertEquals(EntryField.TRUE, table.getBoolean(full.index(), FLAG));
+    assertEquals(2, table.getLength(full.index(), PICKS));
+    assertEquals(0, table.getElement(full.index(), PICKS, 0));
+    assertEquals(2, table.getElement(full.index(), PICKS, 1));
+
+    assertEquals(EntryField.MISSING, table.getInt(empty.index(), COUNT));
+    assertEquals(EntryField.MISSING, table.getBoolean(empty.index(), FLAG));
+    // A single number is a list of one
+    assertEquals(1, table.getLength(empty.index(), PICKS));
+    assertEquals(1, table.getElement(empty.index(), PICKS, 0));
+  }
+
+  @Test
+  void appendKeepsOneRowPerId() throws JsonProcessingException {
+    EntryTable table = new EntryTable(EVENT_KEY, SCHEMA);
+    EntryRow first = table.append(entry("1", "qm1", "alice", "{\"count\":1}"));
+    EntryRow again = table.append(entry("1", "qm1", "alice", "{\"count\":1}"));
+
+    assertEquals(first.index(), again.index());
+    assertEquals(1, table.size());
+    assertEquals(0, table.rowOf("1"));
+    assertEquals(-1, table.rowOf("2"));
+  }
+
+  @Test
+  void appendAllGrowsPastInitialCapacity() throws JsonProcessingException {
+    List<DataEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      entries.add(entry(Integer.toString(i), "qm" + (i % 10), "user" + (i % 3),
+                        "{\"count\":" + i + "}"));
+    }
+
+    EntryTable table = new EntryTable(EVENT_KEY, SCHEMA);
+    table.appendAll(entries);
+    table.appendAll(entries);
+
+    assertEquals(500, table.size());
+    for (int i = 0; i < 500; i++) {
+      int row = table.rowOf(Integer.toString(i));
+      assertEquals(i, row);
+      assertEquals(i, table.getInt(row, COUNT));
+    }
+    assertEquals(50, table.matchSize("qm3"));
+  }
+
+  @Test
+  void dictionaryEncodesMatchesAndUsers() throws JsonProcessingException {
+    EntryTable table = new EntryTable(EVENT_KEY, SCHEMA);
+    table.append(entry("1", "qm1", "alice", "{}"));
+    table.append(entry("2", "qm2", "bob", "{}"));
+    table.append(entry("3", "qm1", "bob", "{}"));
+    table.append(entry("4", null, null, "{}"));
+
+    assertEquals("qm1", table.matchKey(2));
+    assertEquals("bob", table.submittingUser(2));
+    assertNull(table.matchKey(3));
+    assertNull(table.submittingUser(3));
+
+    List<EntryRow> rows = table.matchRows("qm1");
+    assertEquals(2, rows.size());
+    assertEquals("1", rows.get(0)
+                          .id());
+    assertEquals("3", rows.get(1)
+                          .id());
+    assertEquals(1, table.matchSize("qm2"));
+    assertEquals(0, table.matchSize("qm3"));
+  }
+
+  @Test
+  void copyMissingAddsOnlyNewRows() throws JsonProcessingException {
+    EntryTable loaded = new EntryTable(EVENT_KEY, SCHEMA);
+    loaded.append(entry("1", "qm1", "alice", "{\"count\":1}"));
+
+    EntryTable early = new EntryTable(EVENT_KEY, SCHEMA);
+    early.append(entry("1", "qm1", "alice", "{\"count\":1}"));
+    early.append(entry("2", "qm2", "carol", "{\"count\":2,\"flag\":false,\"picks\":[1,2]}"));
+
+    loaded.copyMissing(early);
+
+    assertEquals(2, loaded.size());
+    int row = loaded.rowOf("2");
+    assertEquals(1, row);
+    assertEquals("qm2", loaded.matchKey(row));
+    assertEquals("carol", loaded.submittingUser(row));
+    assertEquals(2, loaded.getInt(row, COUNT));
+    assertEquals(EntryField.FALSE, loaded.getBoolean(row, FLAG));
+    assertEquals(2, loaded.getLength(row, PICKS));
+    assertEquals(2, loaded.getElement(row, PICKS, 1));
+    assertEquals(1, loaded.matchSize("qm2"));
+  }
+
+  private static DataEntry entry(String id, String matchKey, String user, String json)
+      throws JsonProcessingException {
+    return new DataEntry(id, EVENT_KEY, matchKey, user, 1559, 254, MAPPER.readTree(json), 0);
+  }
+}